@@ -0,0 +1,150 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.flux.AdaptiveSubscriber;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes {@code size} items, either right from {@code Flux.range(...)}, or after a {@code publishOn(...)}, requesting
+ * all of them at once, one by one, or with {@link AdaptiveSubscriber}. Besides the time, it reports the number of
+ * {@code request(n)} calls, and the maximum of the requested but not yet received items, which is what the queues
+ * above may have to hold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptiveSubscriberBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean publishOn;
+
+    private Scheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        scheduler = Schedulers.newSingle("publisher");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public void unbounded(Blackhole blackhole, ElementCounter counter, Demand demand) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        source().subscribe(new BaseSubscriber<Integer>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                demand.record(1, size);
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            protected void hookOnNext(Integer value) {
+                blackhole.consume(value);
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                done.countDown();
+            }
+        });
+        done.await();
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole, ElementCounter counter, Demand demand) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        source().subscribe(new BaseSubscriber<Integer>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Integer value) {
+                blackhole.consume(value);
+                request(1);
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                done.countDown();
+            }
+        });
+        done.await();
+        demand.record(size + 1, 1);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void adaptive(Blackhole blackhole, ElementCounter counter, Demand demand) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        long[] maxOutstanding = new long[1];
+        AdaptiveSubscriber<Integer> subscriber = new AdaptiveSubscriber<Integer>() {
+            @Override
+            protected void process(Integer value) {
+                blackhole.consume(value);
+                maxOutstanding[0] = Math.max(maxOutstanding[0], getBatch());
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                done.countDown();
+            }
+        };
+        source().subscribe(subscriber);
+        done.await();
+        demand.record(subscriber.getRequestCalls(), maxOutstanding[0]);
+        counter.elements += size;
+    }
+
+    private Flux<Integer> source() {
+        Flux<Integer> range = Flux.range(0, size);
+        return publishOn ? range.publishOn(scheduler) : range;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Demand {
+        public long requestCalls;
+        public long maxOutstanding;
+
+        // Per operation, the last one of each iteration is reported.
+        void record(long requestCalls, long maxOutstanding) {
+            this.requestCalls = requestCalls;
+            this.maxOutstanding = maxOutstanding;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.CheckedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up {@code size} ids, where every {@code missEvery}th one is missing, and the missing ones are skipped. A miss
+ * is signalled with a new checked exception wrapped by {@code Exceptions.propagate(...)}, with the same exception
+ * thrown through {@link CheckedMap}, or with the reused, stackless {@link CheckedMap.NotFoundException}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckedMapBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"1", "10"})
+    public int missEvery;
+
+    @Benchmark
+    public Long propagate(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.range(0, size)
+            .flatMap(id -> Mono.just(id)
+                .map(i -> {
+                    try {
+                        return findWithCheckedException(i);
+                    } catch (LookupException e) {
+                        throw Exceptions.propagate(e);
+                    }
+                })
+                .onErrorResume(e -> Exceptions.unwrap(e) instanceof LookupException, e -> Mono.empty()))
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    public Long checkedMap(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.range(0, size)
+            .flatMap(id -> Mono.just(id)
+                .transform(CheckedMap.mapMono(this::findWithCheckedException))
+                .onErrorResume(LookupException.class, e -> Mono.empty()))
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    public Long stackless(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.range(0, size)
+            .flatMap(id -> Mono.just(id)
+                .transform(CheckedMap.mapMono(this::findWithStacklessException))
+                .onErrorResume(CheckedMap.NotFoundException.class, e -> Mono.empty()))
+            .count()
+            .block();
+    }
+
+    private Integer findWithCheckedException(Integer id) throws LookupException {
+        if (id % missEvery == 0) {
+            throw new LookupException("Id '" + id + "' not found");
+        }
+        return id;
+    }
+
+    private Integer findWithStacklessException(Integer id) {
+        if (id % missEvery == 0) {
+            throw CheckedMap.NotFoundException.INSTANCE;
+        }
+        return id;
+    }
+
+    private static final class LookupException extends Exception {
+        LookupException(String message) {
+            super(message);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.CoalescedCombineLatest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code Flux.combineLatest(...)} with {@link CoalescedCombineLatest} on a burst of updates, where
+ * {@code size} ticks are emitted as fast as possible, and each tick updates all the sources one after the other.
+ * The elements counter counts the updates of the sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoalescedCombineLatestBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"20"})
+    public int sources;
+
+    @Benchmark
+    public void combineLatest(Blackhole blackhole, ElementCounter counter) {
+        Flux.combineLatest(CoalescedCombineLatestBenchmark::average, sensors())
+            .subscribe(blackhole::consume);
+        counter.elements += (long) size * sources;
+    }
+
+    @Benchmark
+    public void coalesced(Blackhole blackhole, ElementCounter counter) {
+        CoalescedCombineLatest.combineLatest(Duration.ofMillis(1), CoalescedCombineLatestBenchmark::average, sensors())
+            .subscribe(blackhole::consume);
+        counter.elements += (long) size * sources;
+    }
+
+    // Every sensor gets each tick, and they start ticking once all of them are subscribed.
+    private Publisher<?>[] sensors() {
+        Flux<Integer> ticks = Flux.range(0, size)
+            .publish()
+            .autoConnect(sources);
+        Publisher<?>[] sensors = new Publisher[sources];
+        Arrays.fill(sensors, ticks);
+        return sensors;
+    }
+
+    private static double average(Object[] values) {
+        long sum = 0;
+        for (Object value : values) {
+            sum += (Integer) value;
+        }
+        return (double) sum / values.length;
+    }
+
+    private static double average(CoalescedCombineLatest.Slots slots) {
+        long sum = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            sum += slots.<Integer>get(i);
+        }
+        return (double) sum / slots.size();
+    }
+
+}
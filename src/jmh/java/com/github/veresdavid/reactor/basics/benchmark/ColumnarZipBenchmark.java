@@ -0,0 +1,87 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.ColumnarZip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code Flux.zip(...).map(...)} with {@link ColumnarZip}, building the same object from each row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarZipBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"3", "5", "8"})
+    public int sources;
+
+    private Flux<Row> zipMap;
+    private Flux<Row> columnarZip;
+
+    @Setup
+    public void setup() {
+        Publisher<?>[] publishers = new Publisher[sources];
+        for (int i = 0; i < sources; i++) {
+            publishers[i] = Flux.range(i, size);
+        }
+        zipMap = Flux.zip(Tuples.fnAny(), publishers)
+            .map(Row::new);
+        columnarZip = ColumnarZip.zip(Row::new, publishers);
+    }
+
+    @Benchmark
+    public void zipMap(Blackhole blackhole, ElementCounter counter) {
+        zipMap.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void columnarZip(Blackhole blackhole, ElementCounter counter) {
+        columnarZip.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    // The object built from each row, holding the sum of the items.
+    private static final class Row {
+        private final long sum;
+
+        Row(Tuple2<?, ?> tuple) {
+            long total = 0;
+            for (int i = 0; i < tuple.size(); i++) {
+                total += (Integer) tuple.get(i);
+            }
+            this.sum = total;
+        }
+
+        Row(ColumnarZip.Columns columns, int row) {
+            long total = 0;
+            for (int i = 0; i < columns.width(); i++) {
+                total += columns.<Integer>get(i, row);
+            }
+            this.sum = total;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.DelayErrors;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges {@code sources} sources, where every {@code failEvery}th one fails, with {@code Flux.mergeDelayError(...)}
+ * and with {@link DelayErrors}. Besides the time, it reports the number of errors retained until the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayErrorsBenchmark {
+
+    @Param({"10000"})
+    public int sources;
+
+    @Param({"2"})
+    public int failEvery;
+
+    private final DelayErrors delayErrors = DelayErrors.builder().build();
+
+    @Benchmark
+    public Throwable mergeDelayError(Retained retained) {
+        Throwable error = Flux.mergeDelayError(32, sources()).ignoreElements().materialize().block().getThrowable();
+        retained.errors = Exceptions.unwrapMultiple(error).size();
+        return error;
+    }
+
+    @Benchmark
+    public Throwable delayErrors(Retained retained) {
+        Throwable error = delayErrors.merge(Flux.fromArray(sources()), 32).ignoreElements().materialize().block()
+            .getThrowable();
+        retained.errors = ((DelayErrors.AggregatedException) error).getErrors().size();
+        return error;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<Integer>[] sources() {
+        Flux<Integer>[] fluxes = new Flux[sources];
+        for (int i = 0; i < sources; i++) {
+            fluxes[i] = i % failEvery == 0 ? Flux.error(new SourceException()) : Flux.just(i);
+        }
+        return fluxes;
+    }
+
+    // Without a stack trace, so creating it does not dominate the results.
+    private static final class SourceException extends RuntimeException {
+        SourceException() {
+            super("Source failed", null, false, false);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retained {
+        public long errors;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH counter, which counts the elements that went through a pipeline.
+ *
+ * A benchmark operation usually pushes many elements through a pipeline, so the primary score tells us the cost of a
+ * whole pipeline. With this counter, JMH also reports the number of elements per time unit, so the per-element
+ * latency is simply the reciprocal of the {@code elements} score.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ElementCounter {
+
+    public long elements;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        elements = 0;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the combining operators shown in {@code FluxCombineTest}: concat, merge, zip and combineLatest.
+ *
+ * Every operator combines two sources of {@code size / 2} elements. concat and merge emit all of them, zip emits one
+ * element per pair, and combineLatest one element per item of the second source, as the first one is already completed
+ * by then. The elements are counted by the subscriber, so the {@code elements} score is the number of elements
+ * actually emitted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluxCombineBenchmark {
+
+    @Param({"1", "1000", "1000000", "10000000"})
+    public int size;
+
+    private Flux<Integer> first;
+    private Flux<Integer> second;
+
+    @Setup
+    public void setup() {
+        first = Flux.range(0, Math.max(1, size / 2));
+        second = Flux.range(0, Math.max(1, size / 2));
+    }
+
+    @Benchmark
+    public void concat(Blackhole blackhole, ElementCounter counter) {
+        consume(Flux.concat(first, second), blackhole, counter);
+    }
+
+    @Benchmark
+    public void merge(Blackhole blackhole, ElementCounter counter) {
+        consume(Flux.merge(first, second), blackhole, counter);
+    }
+
+    @Benchmark
+    public void zip(Blackhole blackhole, ElementCounter counter) {
+        consume(Flux.zip(first, second)
+            .map(tuple -> tuple.getT1() + tuple.getT2()), blackhole, counter);
+    }
+
+    @Benchmark
+    public void combineLatest(Blackhole blackhole, ElementCounter counter) {
+        consume(Flux.combineLatest(first, second, Integer::sum), blackhole, counter);
+    }
+
+    private static void consume(Flux<Integer> flux, Blackhole blackhole, ElementCounter counter) {
+        flux.subscribe(element -> {
+            blackhole.consume(element);
+            counter.elements++;
+        });
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the mapping operators shown in {@code FluxMapTest}: map, flatMap and flatMapSequential.
+ *
+ * The inner publishers are synchronous (like {@code findHeroById}), so we measure the operator overhead only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluxMapBenchmark {
+
+    @Param({"1", "1000", "1000000", "10000000"})
+    public int size;
+
+    private Flux<Integer> source;
+
+    @Setup
+    public void setup() {
+        source = Flux.range(0, size);
+    }
+
+    @Benchmark
+    public void map(Blackhole blackhole, ElementCounter counter) {
+        source.map(i -> i + 1)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void flatMap(Blackhole blackhole, ElementCounter counter) {
+        source.flatMap(Mono::just)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void flatMapSequential(Blackhole blackhole, ElementCounter counter) {
+        source.flatMapSequential(Mono::just)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.Hedge;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends {@code requests} requests, {@code concurrency} at a time, to a simulated service, which usually answers in 2-4
+ * milliseconds, but {@code slowPercent}% of the time, it takes {@code slowMillis} milliseconds. The requests go only to
+ * the primary, they are hedged with {@link Hedge}, or they always go to both replicas with
+ * {@code Mono.firstWithValue(...)}.
+ *
+ * Besides the time of the whole run, it reports the 50th and 99th percentile and the maximum of the latency of the
+ * requests in microseconds, and the number of calls to the service per 100 requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HedgeBenchmark {
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"50"})
+    public int concurrency;
+
+    @Param({"5"})
+    public int slowPercent;
+
+    @Param({"100"})
+    public long slowMillis;
+
+    // Shared by the iterations, so the hedge delay is already learned in the warmup.
+    private final Hedge hedge = Hedge.builder()
+        .percentile(95)
+        .build();
+
+    private final AtomicLong calls = new AtomicLong();
+
+    @Benchmark
+    public Long primaryOnly(Latency latency) {
+        return run(latency, service());
+    }
+
+    @Benchmark
+    public Long hedged(Latency latency) {
+        return run(latency, service().transform(hedge.withFallback(service())));
+    }
+
+    @Benchmark
+    public Long alwaysBoth(Latency latency) {
+        return run(latency, Mono.firstWithValue(service(), service()));
+    }
+
+    private Long run(Latency latency, Mono<Long> request) {
+        Histogram histogram = new ConcurrentHistogram(3);
+        calls.set(0);
+        Long last = Flux.range(0, requests)
+            .flatMap(i -> Mono.fromSupplier(System::nanoTime)
+                .flatMap(start -> request.doOnNext(value -> record(histogram, start))), concurrency)
+            .blockLast();
+        latency.p50Micros = histogram.getValueAtPercentile(50);
+        latency.p99Micros = histogram.getValueAtPercentile(99);
+        latency.maxMicros = histogram.getMaxValue();
+        latency.callsPer100 = calls.get() * 100 / requests;
+        return last;
+    }
+
+    private void record(Histogram histogram, long startNanos) {
+        histogram.recordValue((System.nanoTime() - startNanos) / 1000);
+    }
+
+    private Mono<Long> service() {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long micros = random.nextInt(100) < slowPercent
+                ? slowMillis * 1000
+                : random.nextLong(2000, 4000);
+            return Mono.delay(Duration.ofNanos(micros * 1000));
+        });
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        public long p50Micros;
+        public long p99Micros;
+        public long maxMicros;
+        public long callsPer100;
+    }
+
+}
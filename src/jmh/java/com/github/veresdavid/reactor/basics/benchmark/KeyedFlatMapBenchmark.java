@@ -0,0 +1,100 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.KeyedFlatMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes {@code size} events spread over {@code keys} keys on the parallel Scheduler, keeping the order of all
+ * the events ({@code flatMapSequential}), of the events of each key ({@link KeyedFlatMap}), or none of them
+ * ({@code parallel().runOn(...)}). Processing an event costs {@code work} Blackhole tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyedFlatMapBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"10000"})
+    public int keys;
+
+    @Param({"0", "100"})
+    public long work;
+
+    private Event[] events;
+
+    @Setup
+    public void setup() {
+        events = new Event[size];
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event(i % keys, i);
+        }
+    }
+
+    @Benchmark
+    public Long flatMapSequential(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.fromArray(events)
+            .flatMapSequential(event -> Mono.fromCallable(() -> process(event)).subscribeOn(Schedulers.parallel()))
+            .blockLast();
+    }
+
+    @Benchmark
+    public Long keyedFlatMap(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.fromArray(events)
+            .transform(KeyedFlatMap.flatMap(Event::getKey, event -> Mono.fromCallable(() -> process(event))))
+            .blockLast();
+    }
+
+    @Benchmark
+    public Long unordered(ElementCounter counter) {
+        counter.elements += size;
+        return Flux.fromArray(events)
+            .parallel()
+            .runOn(Schedulers.parallel())
+            .map(this::process)
+            .sequential()
+            .blockLast();
+    }
+
+    private Long process(Event event) {
+        Blackhole.consumeCPU(work);
+        return event.sequence;
+    }
+
+    private static final class Event {
+        private final Integer key;
+        private final long sequence;
+
+        Event(int key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        Integer getKey() {
+            return key;
+        }
+    }
+
+}
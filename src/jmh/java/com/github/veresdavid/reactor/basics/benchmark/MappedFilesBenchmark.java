@@ -0,0 +1,125 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.io.MappedFiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads a log file of {@code sizeMb} megabytes, counting its lines, and copies it to another file, either line by line
+ * with {@code Flux.fromStream(Files.lines(...))}, or in {@link ByteBuffer} chunks with {@link MappedFiles}. With
+ * {@code -prof gc}, we can also see how much garbage the lines are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedFilesBenchmark {
+
+    @Param({"64"})
+    public int sizeMb;
+
+    private Path directory;
+    private Path log;
+    private Path copy;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("mapped-files");
+        log = directory.resolve("application.log");
+        copy = directory.resolve("copy.log");
+        long size = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(log)) {
+            for (int i = 0; size < sizeMb * 1024L * 1024; i++) {
+                String line = "2021-01-15 10:00:00.000 INFO [main] Request " + i + " served by TK-" + i % 1000;
+                writer.write(line);
+                writer.newLine();
+                size += line.length() + 1;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(copy);
+        Files.deleteIfExists(log);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Long linesCount() {
+        return lines().count().block();
+    }
+
+    @Benchmark
+    public Long mappedCount() {
+        return MappedFiles.read(log)
+            .map(MappedFilesBenchmark::countLines)
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    @Benchmark
+    public Long linesCopy() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(copy)) {
+            return lines()
+                .doOnNext(line -> writeLine(writer, line))
+                .count()
+                .block();
+        }
+    }
+
+    @Benchmark
+    public Long mappedCopy() {
+        return MappedFiles.write(MappedFiles.read(log), copy)
+            .block();
+    }
+
+    private Flux<String> lines() {
+        return Flux.using(() -> Files.lines(log, StandardCharsets.UTF_8), Flux::fromStream, Stream::close);
+    }
+
+    private static long countLines(ByteBuffer chunk) {
+        long lines = 0;
+        for (int i = chunk.position(); i < chunk.limit(); i++) {
+            if (chunk.get(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the operators shown in {@code MonoOperatorTest} and {@code FluxFallbackTest}: the doOn operators, map,
+ * onErrorResume, onErrorReturn and switchIfEmpty.
+ *
+ * A {@link Mono} has at most one element, so one benchmark operation subscribes {@code size} times to the same
+ * {@link Mono}, and an element means one subscription here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonoOperatorBenchmark {
+
+    @Param({"1", "1000", "1000000", "10000000"})
+    public int size;
+
+    private Mono<String> doOnOperators;
+    private Mono<String> map;
+    private Mono<String> onErrorResume;
+    private Mono<String> onErrorReturn;
+    private Mono<String> switchIfEmpty;
+
+    @Setup
+    public void setup() {
+        doOnOperators = Mono.just("Beru Lars")
+            .doOnSubscribe(subscription -> { })
+            .doOnRequest(value -> { })
+            .doOnNext(s -> { })
+            .doOnSuccess(s -> { });
+        map = Mono.just("Wedge Antilles")
+            .map(String::toUpperCase);
+        onErrorResume = Mono.<String>error(new RuntimeException("Who is Ben Kenobi?"))
+            .onErrorResume(throwable -> Mono.just("Obi-Wan Kenobi"));
+        onErrorReturn = Mono.<String>error(new RuntimeException("Darth Vader"))
+            .onErrorReturn("Anakin Skywalker");
+        switchIfEmpty = Mono.<String>empty()
+            .switchIfEmpty(Mono.just("Master Yoda"));
+    }
+
+    @Benchmark
+    public void doOnOperators(Blackhole blackhole, ElementCounter counter) {
+        subscribeMany(doOnOperators, blackhole, counter);
+    }
+
+    @Benchmark
+    public void map(Blackhole blackhole, ElementCounter counter) {
+        subscribeMany(map, blackhole, counter);
+    }
+
+    @Benchmark
+    public void onErrorResume(Blackhole blackhole, ElementCounter counter) {
+        subscribeMany(onErrorResume, blackhole, counter);
+    }
+
+    @Benchmark
+    public void onErrorReturn(Blackhole blackhole, ElementCounter counter) {
+        subscribeMany(onErrorReturn, blackhole, counter);
+    }
+
+    @Benchmark
+    public void switchIfEmpty(Blackhole blackhole, ElementCounter counter) {
+        subscribeMany(switchIfEmpty, blackhole, counter);
+    }
+
+    private void subscribeMany(Mono<String> mono, Blackhole blackhole, ElementCounter counter) {
+        for (int i = 0; i < size; i++) {
+            mono.subscribe(blackhole::consume);
+        }
+        counter.elements += size;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.OrderedFlatMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares {@code flatMapSequential} with {@link OrderedFlatMap}, mapping each item to a {@link Mono}, like the
+ * lookups in {@code FluxMapTest}. The {@code scalar} inner sources are {@code Mono.just(...)}, which are passed on
+ * without subscribing to them, the {@code hidden} ones are subscribed like any other source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedFlatMapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"scalar", "hidden"})
+    public String innerType;
+
+    private Flux<Integer> flatMapSequential;
+    private Flux<Integer> orderedFlatMap;
+
+    @Setup
+    public void setup() {
+        Function<Integer, Mono<Integer>> mapper = "scalar".equals(innerType)
+            ? Mono::just
+            : i -> Mono.just(i).hide();
+        flatMapSequential = Flux.range(0, size)
+            .flatMapSequential(mapper);
+        orderedFlatMap = Flux.range(0, size)
+            .transform(OrderedFlatMap.builder().build().flatMap(mapper));
+    }
+
+    @Benchmark
+    public void flatMapSequential(Blackhole blackhole, ElementCounter counter) {
+        flatMapSequential.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void orderedFlatMap(Blackhole blackhole, ElementCounter counter) {
+        orderedFlatMap.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.metrics.PipelineMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-element cost of a {@link PipelineMetrics} stage, when it is disabled, enabled and enabled with
+ * sampled latency measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineMetricsBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private Flux<Integer> plain;
+    private Flux<Integer> measured;
+    private Flux<Integer> sampled;
+
+    @Setup
+    public void setup() {
+        PipelineMetrics.setEnabled(enabled);
+        plain = Flux.range(0, size)
+            .map(i -> i + 1);
+        measured = plain.transform(PipelineMetrics.stage("measured"));
+        sampled = plain.transform(PipelineMetrics.stage("sampled", 64));
+    }
+
+    @TearDown
+    public void tearDown() {
+        PipelineMetrics.setEnabled(true);
+        PipelineMetrics.reset();
+    }
+
+    @Benchmark
+    public void plain(Blackhole blackhole, ElementCounter counter) {
+        plain.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void measured(Blackhole blackhole, ElementCounter counter) {
+        measured.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void sampled(Blackhole blackhole, ElementCounter counter) {
+        sampled.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+}
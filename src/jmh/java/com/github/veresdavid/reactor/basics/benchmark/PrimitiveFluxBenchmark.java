@@ -0,0 +1,72 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.flux.IntFlux;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the boxed {@code Flux<Integer>} pipeline with the same pipeline on {@link IntFlux}.
+ *
+ * Watch the {@code gc.alloc.rate.norm} secondary score: the {@link IntFlux} variants should allocate a constant
+ * amount per operation, independently of the size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveFluxBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    @Benchmark
+    public void boxedSum(Blackhole blackhole, ElementCounter counter) {
+        Flux.range(0, size)
+            .map(i -> i * 3)
+            .filter(i -> (i & 1) == 0)
+            .reduce(0, Integer::sum)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void primitiveSum(Blackhole blackhole, ElementCounter counter) {
+        IntFlux.range(0, size)
+            .map(i -> i * 3)
+            .filter(i -> (i & 1) == 0)
+            .sum()
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void boxedWindow(Blackhole blackhole, ElementCounter counter) {
+        Flux.range(0, size)
+            .buffer(256)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void primitiveWindow(Blackhole blackhole, ElementCounter counter) {
+        IntFlux.range(0, size)
+            .window(256)
+            .subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.flux.RecordDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits {@code sizeMb} megabytes of log lines, arriving in 64 KiB chunks, into lines: by collecting the whole payload
+ * into a {@link String} first, and with {@link RecordDecoder}, decoding every line into a {@link String}, or emitting
+ * views of the chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordDecoderBenchmark {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Param({"16"})
+    public int sizeMb;
+
+    private ByteBuffer payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        payload = ByteBuffer.allocateDirect(sizeMb * 1024 * 1024);
+        for (int i = 0; ; i++) {
+            byte[] line = ("2021-01-15 10:00:00.000 INFO [main] Request " + i + " served by TK-" + i % 1000 + "\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            if (line.length > payload.remaining()) {
+                break;
+            }
+            payload.put(line);
+        }
+        payload.flip();
+    }
+
+    @Benchmark
+    public Long joinAndSplit() {
+        return chunks()
+            .map(StandardCharsets.US_ASCII::decode)
+            .collect(StringBuilder::new, StringBuilder::append)
+            .flatMapMany(text -> Flux.fromStream(text.toString().lines()))
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    public Long stringLines() {
+        return chunks()
+            .transform(RecordDecoder.lines(StandardCharsets.UTF_8, 1024))
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    public Long viewLines() {
+        return chunks()
+            .transform(RecordDecoder.lines(StandardCharsets.US_ASCII, 1024))
+            .count()
+            .block();
+    }
+
+    private Flux<ByteBuffer> chunks() {
+        return Flux.range(0, (payload.limit() + CHUNK_SIZE - 1) / CHUNK_SIZE)
+            .map(i -> {
+                ByteBuffer chunk = payload.duplicate();
+                chunk.position(i * CHUNK_SIZE).limit(Math.min((i + 1) * CHUNK_SIZE, payload.limit()));
+                return chunk.slice();
+            });
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.flux.RingBufferFlux;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fanning out a hot {@link Flux} to many subscribers with {@code publish()}, {@code replay(n)} and
+ * {@link RingBufferFlux}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferFluxBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"1", "100"})
+    public int subscribers;
+
+    @Benchmark
+    public void publish(Blackhole blackhole, ElementCounter counter) {
+        fanOut(Flux.range(0, size).publish(), blackhole, counter);
+    }
+
+    @Benchmark
+    public void replay(Blackhole blackhole, ElementCounter counter) {
+        fanOut(Flux.range(0, size).replay(16), blackhole, counter);
+    }
+
+    @Benchmark
+    public void ringBuffer(Blackhole blackhole, ElementCounter counter) {
+        fanOut(RingBufferFlux.builder(Flux.range(0, size)).replayLast(16).build(), blackhole, counter);
+    }
+
+    private void fanOut(ConnectableFlux<Integer> flux, Blackhole blackhole, ElementCounter counter) {
+        for (int i = 0; i < subscribers; i++) {
+            flux.subscribe(blackhole::consume);
+        }
+        flux.connect();
+        counter.elements += (long) size * subscribers;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.scheduler.SchedulerHopAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the hand-off done by a redundant publishOn, like the one in
+ * {@code FluxThreadTest.fluxWithPublishOn}, and the gain of the rewriting done by {@link SchedulerHopAnalyzer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerHopBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Scheduler single;
+    private Scheduler elastic;
+    private Flux<Integer> twoHops;
+    private Flux<Integer> oneHop;
+    private Flux<Integer> rewritten;
+
+    @Setup
+    public void setup() {
+        single = Schedulers.newSingle("single");
+        elastic = Schedulers.newBoundedElastic(4, 1000, "elastic");
+        twoHops = Flux.range(0, size)
+            .publishOn(single)
+            .publishOn(elastic)
+            .map(i -> i + 1);
+        oneHop = Flux.range(0, size)
+            .publishOn(elastic)
+            .map(i -> i + 1);
+
+        SchedulerHopAnalyzer.enableRewriting();
+        try {
+            rewritten = Flux.range(0, size)
+                .publishOn(single)
+                .publishOn(elastic)
+                .map(i -> i + 1);
+        } finally {
+            SchedulerHopAnalyzer.disableRewriting();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.dispose();
+        elastic.dispose();
+    }
+
+    @Benchmark
+    public Integer twoHops(ElementCounter counter) {
+        counter.elements += size;
+        return twoHops.blockLast();
+    }
+
+    @Benchmark
+    public Integer oneHop(ElementCounter counter) {
+        counter.elements += size;
+        return oneHop.blockLast();
+    }
+
+    @Benchmark
+    public Integer rewritten(ElementCounter counter) {
+        counter.elements += size;
+        return rewritten.blockLast();
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.tracing.SignalTracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Compares the per-element cost of {@link SignalTracer} with the {@code log()} operator.
+ *
+ * The log benchmark logs on FINE level, which is disabled, so it only shows the cost of the operator itself without
+ * any output. With output, it is several orders of magnitude slower.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalTracerBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private Flux<Integer> plain;
+    private Flux<Integer> traced;
+    private Flux<Integer> sampled;
+    private Flux<Integer> logged;
+
+    @Setup
+    public void setup() {
+        plain = Flux.range(0, size)
+            .map(i -> i + 1);
+        traced = plain.transform(SignalTracer.trace("traced"));
+        sampled = plain.transform(SignalTracer.trace("sampled", 0.01));
+        logged = plain.log("logged", Level.FINE);
+    }
+
+    @Benchmark
+    public void plain(Blackhole blackhole, ElementCounter counter) {
+        plain.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void traced(Blackhole blackhole, ElementCounter counter) {
+        traced.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void sampled(Blackhole blackhole, ElementCounter counter) {
+        sampled.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+    @Benchmark
+    public void logged(Blackhole blackhole, ElementCounter counter) {
+        logged.subscribe(blackhole::consume);
+        counter.elements += size;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.operators.WeightedMerge;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a control source ticking every millisecond, while the bulk sources flood a slow consumer,
+ * merged with {@code Flux.merge(...)} and with {@link WeightedMerge}, where the control source has a higher priority.
+ *
+ * Each control item carries the time it was emitted, and the time until it reaches the consumer is recorded. Besides
+ * the time of the whole run, it reports the 50th and 99th percentile and the maximum of this latency in microseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class WeightedMergeBenchmark {
+
+    private static final String BULK_ITEM = "bulk";
+
+    @Param({"4"})
+    public int bulkSources;
+
+    @Param({"500"})
+    public int controlItems;
+
+    // Work done by the consumer for each item, in Blackhole tokens.
+    @Param({"1000"})
+    public long consumerTokens;
+
+    private Scheduler bulkScheduler;
+    private Scheduler controlScheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bulkScheduler = Schedulers.newParallel("bulk", bulkSources);
+        controlScheduler = Schedulers.newSingle("control");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bulkScheduler.dispose();
+        controlScheduler.dispose();
+    }
+
+    @Benchmark
+    public Object merge(Latency latency) {
+        List<Flux<Object>> sources = new ArrayList<>(bulkSources());
+        sources.add(control());
+        return consume(Flux.merge(sources), latency);
+    }
+
+    @Benchmark
+    public Object weightedMerge(Latency latency) {
+        WeightedMerge.Builder<Object> builder = WeightedMerge.builder();
+        for (Flux<Object> bulkSource : bulkSources()) {
+            builder.source(bulkSource, 0, 1);
+        }
+        builder.source(control(), 1, 1);
+        return consume(builder.build(), latency);
+    }
+
+    // Runs until all the control items are consumed, the bulk sources never run out of items.
+    private Object consume(Flux<Object> merged, Latency latency) {
+        Histogram histogram = new Histogram(3);
+        int[] received = new int[1];
+        Object last = merged
+            .doOnNext(item -> {
+                Blackhole.consumeCPU(consumerTokens);
+                if (item instanceof Long) {
+                    histogram.recordValue((System.nanoTime() - (Long) item) / 1000);
+                    received[0]++;
+                }
+            })
+            .takeUntil(item -> received[0] == controlItems)
+            .blockLast();
+        latency.p50Micros = histogram.getValueAtPercentile(50);
+        latency.p99Micros = histogram.getValueAtPercentile(99);
+        latency.maxMicros = histogram.getMaxValue();
+        return last;
+    }
+
+    private List<Flux<Object>> bulkSources() {
+        List<Flux<Object>> sources = new ArrayList<>();
+        for (int i = 0; i < bulkSources; i++) {
+            sources.add(Flux.generate(sink -> sink.next(BULK_ITEM))
+                .subscribeOn(bulkScheduler));
+        }
+        return sources;
+    }
+
+    private Flux<Object> control() {
+        return Flux.interval(Duration.ofMillis(1), controlScheduler)
+            .map(tick -> (Object) System.nanoTime())
+            .onBackpressureLatest();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        public long p50Micros;
+        public long p99Micros;
+        public long maxMicros;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.github.veresdavid.reactor.basics.benchmark;
+
+import com.github.veresdavid.reactor.basics.scheduler.VirtualThreadSchedulers;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs thousands of concurrent blocking calls (like {@code callEmperorService} in {@code MonoWithBlockingIoTest}) on
+ * boundedElastic and on virtual threads.
+ *
+ * Besides the time of one batch of calls, it reports the peak number of live threads and the used heap after the
+ * batch, as a rough measure of the memory footprint. Only compiled on JDK 21+.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class VirtualThreadSchedulerBenchmark {
+
+    @Param({"1000", "5000"})
+    public int calls;
+
+    @Param({"1000"})
+    public long callMillis;
+
+    @Param({"boundedElastic", "virtual"})
+    public String schedulerType;
+
+    private Scheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        scheduler = "virtual".equals(schedulerType)
+            ? VirtualThreadSchedulers.newVirtualThreadScheduler("virtual")
+            : Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "boundedElastic");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public long blockingCalls(Footprint footprint) {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        long count = Flux.range(0, calls)
+            .flatMap(i -> Mono.fromCallable(this::callEmperorService).subscribeOn(scheduler), calls)
+            .count()
+            .block();
+        footprint.peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+        footprint.usedHeapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        return count;
+    }
+
+    private String callEmperorService() throws InterruptedException {
+        Thread.sleep(callMillis);
+        return "Darth Sidious";
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long peakThreads;
+        public long usedHeapMb;
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A {@link BaseSubscriber}, which requests the items in batches, and tunes the size of the batches while consuming,
+ * instead of requesting them one by one, or all of them at once.
+ *
+ * Every {@code request(n)} goes through the drain loops of the operators above, so requesting one item at a time is
+ * slow, but requesting everything lets a fast source fill the queues of the operators above (like publishOn) with
+ * items the subscriber can't process yet. Instead, the batch is sized to cover {@code bufferTime} worth of items at
+ * the rate the subscriber actually consumes them, but it never exceeds {@code maxBufferedBytes}, estimating each
+ * requested but not yet received item with {@code elementBytes}.
+ *
+ * The first batch is a single item, then the batch grows at most twice as big each time, until it reaches the size
+ * needed for the consumption rate, or the memory limit. The next batch is requested when three quarters of the
+ * current one arrived, so a fast source never has to wait for the demand.
+ *
+ * Usage: {@code flux.subscribe(AdaptiveSubscriber.of(this::process))}
+ */
+public abstract class AdaptiveSubscriber<T> extends BaseSubscriber<T> {
+
+    private static final long DEFAULT_MAX_BUFFERED_BYTES = 1 << 20;
+    private static final int DEFAULT_ELEMENT_BYTES = 64;
+    private static final Duration DEFAULT_BUFFER_TIME = Duration.ofMillis(10);
+
+    private final long maxBatch;
+    private final int elementBytes;
+    private final long bufferTimeNanos;
+
+    private long batch;
+    private long outstanding;
+    private long receivedSinceRequest;
+    private long lastRequestNanos;
+    private long requestCalls;
+
+    protected AdaptiveSubscriber() {
+        this(DEFAULT_MAX_BUFFERED_BYTES, DEFAULT_ELEMENT_BYTES, DEFAULT_BUFFER_TIME);
+    }
+
+    protected AdaptiveSubscriber(long maxBufferedBytes, int elementBytes, Duration bufferTime) {
+        if (elementBytes <= 0) {
+            throw new IllegalArgumentException("elementBytes > 0 required but it was " + elementBytes);
+        }
+        if (maxBufferedBytes < elementBytes) {
+            throw new IllegalArgumentException("maxBufferedBytes >= elementBytes required but it was "
+                + maxBufferedBytes);
+        }
+        Objects.requireNonNull(bufferTime, "bufferTime");
+        if (bufferTime.isNegative() || bufferTime.isZero()) {
+            throw new IllegalArgumentException("bufferTime > 0 required but it was " + bufferTime);
+        }
+        this.maxBatch = maxBufferedBytes / elementBytes;
+        this.elementBytes = elementBytes;
+        this.bufferTimeNanos = bufferTime.toNanos();
+    }
+
+    /**
+     * Creates an {@link AdaptiveSubscriber} with the default settings: 10 milliseconds of buffer time, and 1 MiB of
+     * memory with 64 bytes per item.
+     */
+    public static <T> AdaptiveSubscriber<T> of(Consumer<? super T> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        return new AdaptiveSubscriber<T>() {
+            @Override
+            protected void process(T value) {
+                consumer.accept(value);
+            }
+        };
+    }
+
+    /**
+     * Processes one item. It is called serially, like {@code onNext}.
+     */
+    protected abstract void process(T value);
+
+    @Override
+    protected final void hookOnSubscribe(Subscription subscription) {
+        batch = 1;
+        requestBatch(System.nanoTime());
+    }
+
+    @Override
+    protected final void hookOnNext(T value) {
+        outstanding--;
+        receivedSinceRequest++;
+        process(value);
+        if (outstanding <= batch / 4 && !isDisposed()) {
+            adapt();
+        }
+    }
+
+    /**
+     * The size of the current batch.
+     */
+    public long getBatch() {
+        return batch;
+    }
+
+    /**
+     * Number of {@code request(n)} calls so far.
+     */
+    public long getRequestCalls() {
+        return requestCalls;
+    }
+
+    /**
+     * Estimated memory of the items requested but not received yet.
+     */
+    public long getOutstandingBytes() {
+        return outstanding * elementBytes;
+    }
+
+    // Sizes the next batch to the rate the items were consumed at since the previous request.
+    private void adapt() {
+        long now = System.nanoTime();
+        long elapsedNanos = Math.max(1, now - lastRequestNanos);
+        double itemsPerNano = (double) receivedSinceRequest / elapsedNanos;
+        long target = (long) Math.min(maxBatch, Math.max(1, itemsPerNano * bufferTimeNanos));
+        batch = Math.min(target, batch * 2);
+        requestBatch(now);
+    }
+
+    private void requestBatch(long now) {
+        long n = batch - outstanding;
+        receivedSinceRequest = 0;
+        lastRequestNanos = now;
+        if (n > 0) {
+            outstanding += n;
+            requestCalls++;
+            request(n);
+        }
+    }
+
+}
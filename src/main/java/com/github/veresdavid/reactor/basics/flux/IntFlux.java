@@ -0,0 +1,496 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link Publisher} of primitive ints.
+ *
+ * It follows the request protocol of Reactive Streams, but the items travel through the chain as primitive ints by
+ * calling {@link IntSubscriber#onNext(int)}, so there is no boxing between the operators. Boxing only happens at the
+ * edges: when a regular {@link Subscriber} subscribes (see {@link #boxed()}), or when a single result is emitted
+ * through a {@link Mono} (see {@link #reduce(int, IntBinaryOperator)}).
+ */
+public abstract class IntFlux implements Publisher<Integer> {
+
+    /**
+     * Creates an {@link IntFlux} which emits {@code count} incrementing ints, starting from {@code start}.
+     */
+    public static IntFlux range(int start, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        if ((long) start + count - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("start + count can not exceed Integer.MAX_VALUE");
+        }
+        return new RangeIntFlux(start, count);
+    }
+
+    public abstract void subscribe(IntSubscriber subscriber);
+
+    @Override
+    public final void subscribe(Subscriber<? super Integer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (subscriber instanceof IntSubscriber) {
+            subscribe((IntSubscriber) subscriber);
+        } else {
+            subscribe(new BoxingSubscriber(subscriber));
+        }
+    }
+
+    public final IntFlux map(IntUnaryOperator mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return new SourceIntFlux(this, actual -> new MapSubscriber(actual, mapper));
+    }
+
+    public final IntFlux filter(IntPredicate predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        return new SourceIntFlux(this, actual -> new FilterSubscriber(actual, predicate));
+    }
+
+    public final IntFlux take(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n >= 0 required but it was " + n);
+        }
+        return new SourceIntFlux(this, actual -> new TakeSubscriber(actual, n));
+    }
+
+    /**
+     * Reduces the items with the given accumulator, and emits the result once this {@link IntFlux} completes.
+     */
+    public final Mono<Integer> reduce(int identity, IntBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator, "accumulator");
+        return Mono.create(sink -> subscribe(new ReduceSubscriber(sink, identity, accumulator)));
+    }
+
+    public final Mono<Integer> sum() {
+        return reduce(0, Integer::sum);
+    }
+
+    /**
+     * Collects the items into windows of {@code size} ints. Only the last window can be shorter.
+     *
+     * Requesting n windows results in requesting {@code n * size} items from upstream.
+     */
+    public final Flux<int[]> window(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return Flux.from(actual -> subscribe(new WindowSubscriber(actual, size)));
+    }
+
+    /**
+     * Bridges this {@link IntFlux} to a regular {@link Flux}, boxing each item.
+     */
+    public final Flux<Integer> boxed() {
+        return Flux.from(this);
+    }
+
+    private static final class SourceIntFlux extends IntFlux {
+        private final IntFlux source;
+        private final UnaryOperator<IntSubscriber> operator;
+
+        SourceIntFlux(IntFlux source, UnaryOperator<IntSubscriber> operator) {
+            this.source = source;
+            this.operator = operator;
+        }
+
+        @Override
+        public void subscribe(IntSubscriber subscriber) {
+            source.subscribe(operator.apply(subscriber));
+        }
+    }
+
+    private static final class RangeIntFlux extends IntFlux {
+        private final int start;
+        private final int count;
+
+        RangeIntFlux(int start, int count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(IntSubscriber subscriber) {
+            if (count == 0) {
+                Operators.complete(subscriber);
+                return;
+            }
+            subscriber.onSubscribe(new RangeSubscription(subscriber, start, (long) start + count));
+        }
+    }
+
+    private static final class RangeSubscription implements Subscription {
+        private static final AtomicLongFieldUpdater<RangeSubscription> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(RangeSubscription.class, "requested");
+
+        private final IntSubscriber actual;
+        private final long end;
+        private long index;
+        private volatile boolean cancelled;
+        private volatile long requested;
+
+        RangeSubscription(IntSubscriber actual, long start, long end) {
+            this.actual = actual;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n) && Operators.addCap(REQUESTED, this, n) == 0) {
+                if (n == Long.MAX_VALUE) {
+                    fastPath();
+                } else {
+                    slowPath(n);
+                }
+            }
+        }
+
+        private void fastPath() {
+            for (long i = index; i != end; i++) {
+                if (cancelled) {
+                    return;
+                }
+                actual.onNext((int) i);
+            }
+            if (!cancelled) {
+                actual.onComplete();
+            }
+        }
+
+        private void slowPath(long n) {
+            long emitted = 0;
+            long i = index;
+            for (;;) {
+                while (emitted != n && i != end) {
+                    if (cancelled) {
+                        return;
+                    }
+                    actual.onNext((int) i);
+                    emitted++;
+                    i++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (i == end) {
+                    actual.onComplete();
+                    return;
+                }
+                n = requested;
+                if (n == emitted) {
+                    index = i;
+                    n = REQUESTED.addAndGet(this, -emitted);
+                    if (n == 0) {
+                        return;
+                    }
+                    emitted = 0;
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class BoxingSubscriber implements IntSubscriber {
+        private final Subscriber<? super Integer> actual;
+
+        BoxingSubscriber(Subscriber<? super Integer> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(int value) {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+    }
+
+    // Base class for the operators which forward the requests to upstream as they are.
+    private abstract static class PassThroughSubscriber implements IntSubscriber, Subscription {
+        protected final IntSubscriber actual;
+        protected Subscription upstream;
+        protected boolean done;
+
+        PassThroughSubscriber(IntSubscriber actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                Operators.onErrorDropped(throwable, Context.empty());
+                return;
+            }
+            done = true;
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+
+        protected void failOperator(Throwable throwable) {
+            Exceptions.throwIfFatal(throwable);
+            onError(Operators.onOperatorError(upstream, throwable, Context.empty()));
+        }
+    }
+
+    private static final class MapSubscriber extends PassThroughSubscriber {
+        private final IntUnaryOperator mapper;
+
+        MapSubscriber(IntSubscriber actual, IntUnaryOperator mapper) {
+            super(actual);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (done) {
+                return;
+            }
+            int result;
+            try {
+                result = mapper.applyAsInt(value);
+            } catch (Throwable throwable) {
+                failOperator(throwable);
+                return;
+            }
+            actual.onNext(result);
+        }
+    }
+
+    private static final class FilterSubscriber extends PassThroughSubscriber {
+        private final IntPredicate predicate;
+
+        FilterSubscriber(IntSubscriber actual, IntPredicate predicate) {
+            super(actual);
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (done) {
+                return;
+            }
+            boolean passed;
+            try {
+                passed = predicate.test(value);
+            } catch (Throwable throwable) {
+                failOperator(throwable);
+                return;
+            }
+            if (passed) {
+                actual.onNext(value);
+            } else {
+                upstream.request(1);
+            }
+        }
+    }
+
+    private static final class TakeSubscriber extends PassThroughSubscriber {
+        private long remaining;
+
+        TakeSubscriber(IntSubscriber actual, long n) {
+            super(actual);
+            this.remaining = n;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (remaining == 0 && Operators.validate(upstream, subscription)) {
+                subscription.cancel();
+                done = true;
+                Operators.complete(actual);
+                return;
+            }
+            super.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (done) {
+                return;
+            }
+            actual.onNext(value);
+            if (--remaining == 0) {
+                upstream.cancel();
+                onComplete();
+            }
+        }
+    }
+
+    private static final class ReduceSubscriber implements IntSubscriber {
+        private final MonoSink<Integer> sink;
+        private final IntBinaryOperator accumulator;
+        private int result;
+        private Subscription upstream;
+        private boolean done;
+
+        ReduceSubscriber(MonoSink<Integer> sink, int identity, IntBinaryOperator accumulator) {
+            this.sink = sink;
+            this.result = identity;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                sink.onCancel(subscription::cancel);
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(int value) {
+            if (done) {
+                return;
+            }
+            try {
+                result = accumulator.applyAsInt(result, value);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                done = true;
+                upstream.cancel();
+                sink.error(throwable);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!done) {
+                done = true;
+                sink.error(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                sink.success(result);
+            }
+        }
+    }
+
+    private static final class WindowSubscriber implements IntSubscriber, Subscription {
+        private final Subscriber<? super int[]> actual;
+        private final int size;
+        private Subscription upstream;
+        private int[] window;
+        private int index;
+
+        WindowSubscriber(Subscriber<? super int[]> actual, int size) {
+            this.actual = actual;
+            this.size = size;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(int value) {
+            int[] current = window;
+            if (current == null) {
+                current = new int[size];
+                window = current;
+            }
+            current[index++] = value;
+            if (index == size) {
+                window = null;
+                index = 0;
+                actual.onNext(current);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            window = null;
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            int[] current = window;
+            if (current != null) {
+                window = null;
+                actual.onNext(Arrays.copyOf(current, index));
+            }
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                upstream.request(Operators.multiplyCap(n, size));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * A {@link Subscriber} which can receive primitive ints, without boxing them.
+ *
+ * An {@link IntFlux} always calls {@link #onNext(int)}, the boxed variant is only there to fulfill the contract of
+ * {@link Subscriber}.
+ */
+public interface IntSubscriber extends Subscriber<Integer> {
+
+    void onNext(int value);
+
+    @Override
+    default void onNext(Integer value) {
+        onNext(value.intValue());
+    }
+
+}
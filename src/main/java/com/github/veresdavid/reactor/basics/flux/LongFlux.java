@@ -0,0 +1,601 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link Publisher} of primitive longs.
+ *
+ * It follows the request protocol of Reactive Streams, but the items travel through the chain as primitive longs by
+ * calling {@link LongSubscriber#onNext(long)}, so there is no boxing between the operators. Boxing only happens at the
+ * edges: when a regular {@link Subscriber} subscribes (see {@link #boxed()}), or when a single result is emitted
+ * through a {@link Mono} (see {@link #reduce(long, LongBinaryOperator)}).
+ */
+public abstract class LongFlux implements Publisher<Long> {
+
+    /**
+     * Creates a {@link LongFlux} which emits {@code count} incrementing longs, starting from {@code start}.
+     */
+    public static LongFlux range(long start, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= 0 required but it was " + count);
+        }
+        if (start > Long.MAX_VALUE - count) {
+            throw new IllegalArgumentException("start + count can not exceed Long.MAX_VALUE");
+        }
+        return new RangeLongFlux(start, count);
+    }
+
+    /**
+     * Creates an endless {@link LongFlux} which emits incrementing longs starting from 0, every {@code period} on
+     * the parallel {@link Scheduler}.
+     */
+    public static LongFlux interval(Duration period) {
+        return interval(period, Schedulers.parallel());
+    }
+
+    /**
+     * Creates an endless {@link LongFlux} which emits incrementing longs starting from 0, every {@code period} on
+     * the given {@link Scheduler}.
+     *
+     * Like {@link Flux#interval(Duration, Scheduler)}, it signals an overflow error if a tick happens without demand.
+     */
+    public static LongFlux interval(Duration period, Scheduler scheduler) {
+        Objects.requireNonNull(period, "period");
+        Objects.requireNonNull(scheduler, "scheduler");
+        return new IntervalLongFlux(period.toNanos(), scheduler);
+    }
+
+    public abstract void subscribe(LongSubscriber subscriber);
+
+    @Override
+    public final void subscribe(Subscriber<? super Long> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (subscriber instanceof LongSubscriber) {
+            subscribe((LongSubscriber) subscriber);
+        } else {
+            subscribe(new BoxingSubscriber(subscriber));
+        }
+    }
+
+    public final LongFlux map(LongUnaryOperator mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return new SourceLongFlux(this, actual -> new MapSubscriber(actual, mapper));
+    }
+
+    public final LongFlux filter(LongPredicate predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        return new SourceLongFlux(this, actual -> new FilterSubscriber(actual, predicate));
+    }
+
+    public final LongFlux take(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n >= 0 required but it was " + n);
+        }
+        return new SourceLongFlux(this, actual -> new TakeSubscriber(actual, n));
+    }
+
+    /**
+     * Reduces the items with the given accumulator, and emits the result once this {@link LongFlux} completes.
+     */
+    public final Mono<Long> reduce(long identity, LongBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator, "accumulator");
+        return Mono.create(sink -> subscribe(new ReduceSubscriber(sink, identity, accumulator)));
+    }
+
+    public final Mono<Long> sum() {
+        return reduce(0, Long::sum);
+    }
+
+    /**
+     * Collects the items into windows of {@code size} longs. Only the last window can be shorter.
+     *
+     * Requesting n windows results in requesting {@code n * size} items from upstream.
+     */
+    public final Flux<long[]> window(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return Flux.from(actual -> subscribe(new WindowSubscriber(actual, size)));
+    }
+
+    /**
+     * Bridges this {@link LongFlux} to a regular {@link Flux}, boxing each item.
+     */
+    public final Flux<Long> boxed() {
+        return Flux.from(this);
+    }
+
+    private static final class SourceLongFlux extends LongFlux {
+        private final LongFlux source;
+        private final UnaryOperator<LongSubscriber> operator;
+
+        SourceLongFlux(LongFlux source, UnaryOperator<LongSubscriber> operator) {
+            this.source = source;
+            this.operator = operator;
+        }
+
+        @Override
+        public void subscribe(LongSubscriber subscriber) {
+            source.subscribe(operator.apply(subscriber));
+        }
+    }
+
+    private static final class RangeLongFlux extends LongFlux {
+        private final long start;
+        private final long count;
+
+        RangeLongFlux(long start, long count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(LongSubscriber subscriber) {
+            if (count == 0) {
+                Operators.complete(subscriber);
+                return;
+            }
+            subscriber.onSubscribe(new RangeSubscription(subscriber, start, start + count));
+        }
+    }
+
+    private static final class RangeSubscription implements Subscription {
+        private static final AtomicLongFieldUpdater<RangeSubscription> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(RangeSubscription.class, "requested");
+
+        private final LongSubscriber actual;
+        private final long end;
+        private long index;
+        private volatile boolean cancelled;
+        private volatile long requested;
+
+        RangeSubscription(LongSubscriber actual, long start, long end) {
+            this.actual = actual;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n) && Operators.addCap(REQUESTED, this, n) == 0) {
+                if (n == Long.MAX_VALUE) {
+                    fastPath();
+                } else {
+                    slowPath(n);
+                }
+            }
+        }
+
+        private void fastPath() {
+            for (long i = index; i != end; i++) {
+                if (cancelled) {
+                    return;
+                }
+                actual.onNext(i);
+            }
+            if (!cancelled) {
+                actual.onComplete();
+            }
+        }
+
+        private void slowPath(long n) {
+            long emitted = 0;
+            long i = index;
+            for (;;) {
+                while (emitted != n && i != end) {
+                    if (cancelled) {
+                        return;
+                    }
+                    actual.onNext(i);
+                    emitted++;
+                    i++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (i == end) {
+                    actual.onComplete();
+                    return;
+                }
+                n = requested;
+                if (n == emitted) {
+                    index = i;
+                    n = REQUESTED.addAndGet(this, -emitted);
+                    if (n == 0) {
+                        return;
+                    }
+                    emitted = 0;
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class IntervalLongFlux extends LongFlux {
+        private final long periodNanos;
+        private final Scheduler scheduler;
+
+        IntervalLongFlux(long periodNanos, Scheduler scheduler) {
+            this.periodNanos = periodNanos;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void subscribe(LongSubscriber subscriber) {
+            IntervalSubscription subscription = new IntervalSubscription(subscriber);
+            subscriber.onSubscribe(subscription);
+            try {
+                subscription.setTask(
+                    scheduler.schedulePeriodically(subscription, periodNanos, periodNanos, TimeUnit.NANOSECONDS));
+            } catch (RejectedExecutionException e) {
+                if (!subscription.cancelled) {
+                    subscriber.onError(Operators.onRejectedExecution(e, subscription, null, null, Context.empty()));
+                }
+            }
+        }
+    }
+
+    private static final class IntervalSubscription implements Subscription, Runnable {
+        private static final AtomicLongFieldUpdater<IntervalSubscription> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(IntervalSubscription.class, "requested");
+
+        private final LongSubscriber actual;
+        private long count;
+        private volatile long requested;
+        private volatile boolean cancelled;
+        private volatile Disposable task;
+
+        IntervalSubscription(LongSubscriber actual) {
+            this.actual = actual;
+        }
+
+        void setTask(Disposable task) {
+            this.task = task;
+            if (cancelled) {
+                task.dispose();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (requested != 0) {
+                actual.onNext(count++);
+                if (requested != Long.MAX_VALUE) {
+                    REQUESTED.decrementAndGet(this);
+                }
+            } else {
+                cancel();
+                actual.onError(Exceptions.failWithOverflow(
+                    "Could not emit tick " + count + " due to lack of requests"));
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Disposable current = task;
+            if (current != null) {
+                current.dispose();
+            }
+        }
+    }
+
+    private static final class BoxingSubscriber implements LongSubscriber {
+        private final Subscriber<? super Long> actual;
+
+        BoxingSubscriber(Subscriber<? super Long> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(long value) {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+    }
+
+    // Base class for the operators which forward the requests to upstream as they are.
+    private abstract static class PassThroughSubscriber implements LongSubscriber, Subscription {
+        protected final LongSubscriber actual;
+        protected Subscription upstream;
+        protected boolean done;
+
+        PassThroughSubscriber(LongSubscriber actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                Operators.onErrorDropped(throwable, Context.empty());
+                return;
+            }
+            done = true;
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+
+        protected void failOperator(Throwable throwable) {
+            Exceptions.throwIfFatal(throwable);
+            onError(Operators.onOperatorError(upstream, throwable, Context.empty()));
+        }
+    }
+
+    private static final class MapSubscriber extends PassThroughSubscriber {
+        private final LongUnaryOperator mapper;
+
+        MapSubscriber(LongSubscriber actual, LongUnaryOperator mapper) {
+            super(actual);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onNext(long value) {
+            if (done) {
+                return;
+            }
+            long result;
+            try {
+                result = mapper.applyAsLong(value);
+            } catch (Throwable throwable) {
+                failOperator(throwable);
+                return;
+            }
+            actual.onNext(result);
+        }
+    }
+
+    private static final class FilterSubscriber extends PassThroughSubscriber {
+        private final LongPredicate predicate;
+
+        FilterSubscriber(LongSubscriber actual, LongPredicate predicate) {
+            super(actual);
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onNext(long value) {
+            if (done) {
+                return;
+            }
+            boolean passed;
+            try {
+                passed = predicate.test(value);
+            } catch (Throwable throwable) {
+                failOperator(throwable);
+                return;
+            }
+            if (passed) {
+                actual.onNext(value);
+            } else {
+                upstream.request(1);
+            }
+        }
+    }
+
+    private static final class TakeSubscriber extends PassThroughSubscriber {
+        private long remaining;
+
+        TakeSubscriber(LongSubscriber actual, long n) {
+            super(actual);
+            this.remaining = n;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (remaining == 0 && Operators.validate(upstream, subscription)) {
+                subscription.cancel();
+                done = true;
+                Operators.complete(actual);
+                return;
+            }
+            super.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(long value) {
+            if (done) {
+                return;
+            }
+            actual.onNext(value);
+            if (--remaining == 0) {
+                upstream.cancel();
+                onComplete();
+            }
+        }
+    }
+
+    private static final class ReduceSubscriber implements LongSubscriber {
+        private final MonoSink<Long> sink;
+        private final LongBinaryOperator accumulator;
+        private long result;
+        private Subscription upstream;
+        private boolean done;
+
+        ReduceSubscriber(MonoSink<Long> sink, long identity, LongBinaryOperator accumulator) {
+            this.sink = sink;
+            this.result = identity;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                sink.onCancel(subscription::cancel);
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(long value) {
+            if (done) {
+                return;
+            }
+            try {
+                result = accumulator.applyAsLong(result, value);
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                done = true;
+                upstream.cancel();
+                sink.error(throwable);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!done) {
+                done = true;
+                sink.error(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                sink.success(result);
+            }
+        }
+    }
+
+    private static final class WindowSubscriber implements LongSubscriber, Subscription {
+        private final Subscriber<? super long[]> actual;
+        private final int size;
+        private Subscription upstream;
+        private long[] window;
+        private int index;
+
+        WindowSubscriber(Subscriber<? super long[]> actual, int size) {
+            this.actual = actual;
+            this.size = size;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(long value) {
+            long[] current = window;
+            if (current == null) {
+                current = new long[size];
+                window = current;
+            }
+            current[index++] = value;
+            if (index == size) {
+                window = null;
+                index = 0;
+                actual.onNext(current);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            window = null;
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            long[] current = window;
+            if (current != null) {
+                window = null;
+                actual.onNext(Arrays.copyOf(current, index));
+            }
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                upstream.request(Operators.multiplyCap(n, size));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+
+}
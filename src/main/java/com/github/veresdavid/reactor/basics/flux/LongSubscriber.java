@@ -0,0 +1,20 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * A {@link Subscriber} which can receive primitive longs, without boxing them.
+ *
+ * A {@link LongFlux} always calls {@link #onNext(long)}, the boxed variant is only there to fulfill the contract of
+ * {@link Subscriber}.
+ */
+public interface LongSubscriber extends Subscriber<Long> {
+
+    void onNext(long value);
+
+    @Override
+    default void onNext(Long value) {
+        onNext(value.longValue());
+    }
+
+}
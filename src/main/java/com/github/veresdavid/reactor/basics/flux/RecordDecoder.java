@@ -0,0 +1,336 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decodes a {@link Flux} of {@link ByteBuffer} chunks into records while the chunks arrive, without collecting the
+ * whole payload first.
+ *
+ * A record which is completely inside a chunk is emitted as a view of the chunk, so it stays valid as long as the
+ * bytes of the chunk are not changed by the source. A record which is split across chunks is collected in a
+ * carry-over buffer, which is allocated once per subscription with room for the longest allowed record, and the
+ * record is copied out of it, so the buffer can be reused for the next one. A record longer than the limit is
+ * signalled as an error, instead of growing the buffer.
+ *
+ * Usage: {@code MappedFiles.read(path).transform(RecordDecoder.lines(StandardCharsets.US_ASCII, 1024))}
+ */
+public final class RecordDecoder {
+
+    private static final int LENGTH_PREFIX_BYTES = Integer.BYTES;
+
+    private RecordDecoder() {
+    }
+
+    /**
+     * Splits the chunks at {@code '\n'}, and also removes the {@code '\r'} before it. The lines are decoded with the
+     * given charset. With {@code US-ASCII} or {@code ISO-8859-1}, one byte is one character, so the lines are
+     * {@link CharSequence} views of the bytes, otherwise each line is decoded into a {@link String}. The views don't
+     * implement {@code equals}, so compare them with {@code contentEquals(...)}, or call {@code toString()} to keep
+     * them. A last line without {@code '\n'} is emitted too.
+     *
+     * The lines are split on the {@code '\n'} byte, so the charset must encode ASCII characters as single bytes, like
+     * {@code UTF-8} does, otherwise an {@link IllegalArgumentException} is thrown. For example, {@code UTF-16} is not
+     * supported, as it encodes {@code '\n'} in two bytes, and other characters can contain the byte of {@code '\n'}.
+     */
+    public static Function<Flux<ByteBuffer>, Flux<CharSequence>> lines(Charset charset, int maxLineLength) {
+        Objects.requireNonNull(charset, "charset");
+        if (!isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException("ASCII-compatible charset required but it was " + charset);
+        }
+        requirePositive(maxLineLength);
+        boolean singleByte = charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+        return flux -> decode(flux, () -> new LineDecoder(maxLineLength, charset, singleByte));
+    }
+
+    /**
+     * Splits the chunks into records, each of them prefixed by its length as a 4 byte big-endian int. The records are
+     * read-only views of the bytes after the prefix. If the chunks end in the middle of a record, it is signalled as
+     * an error.
+     */
+    public static Function<Flux<ByteBuffer>, Flux<ByteBuffer>> lengthPrefixed(int maxRecordLength) {
+        requirePositive(maxRecordLength);
+        return flux -> decode(flux, () -> new LengthPrefixedDecoder(maxRecordLength));
+    }
+
+    private static void requirePositive(int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength > 0 required but it was " + maxLength);
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    // Every subscription gets its own decoder, as it has its own carry-over buffer.
+    private static <R> Flux<R> decode(Flux<ByteBuffer> flux, Supplier<Decoder<R>> decoders) {
+        return Flux.defer(() -> {
+            Decoder<R> decoder = decoders.get();
+            return Flux.concat(flux.concatMapIterable(decoder::decode), Mono.fromCallable(decoder::finish));
+        });
+    }
+
+    private abstract static class Decoder<R> {
+
+        final int maxLength;
+        final ByteBuffer carry;
+
+        Decoder(int maxLength, int overhead) {
+            this.maxLength = maxLength;
+            this.carry = ByteBuffer.allocate(maxLength + overhead);
+        }
+
+        List<R> decode(ByteBuffer chunk) {
+            List<R> records = new ArrayList<>();
+            int position = chunk.position();
+            int limit = chunk.limit();
+            if (carry.position() > 0) {
+                position = fill(chunk, position, limit);
+                if (!isCarryComplete()) {
+                    return records;
+                }
+                records.add(carried());
+            }
+            int end;
+            while (position < limit && (end = frameEnd(chunk, position, limit)) >= 0) {
+                records.add(record(chunk, position, end));
+                position = end;
+            }
+            append(chunk, position, limit);
+            return records;
+        }
+
+        /**
+         * The record left in the carry-over buffer when the chunks completed, or null.
+         */
+        abstract R finish();
+
+        /**
+         * The end of the record starting at {@code start}, including its delimiter, or -1 if it doesn't end in this
+         * chunk.
+         */
+        abstract int frameEnd(ByteBuffer chunk, int start, int limit);
+
+        /**
+         * The record between {@code start} and {@code end}, including its delimiter or prefix.
+         */
+        abstract R record(ByteBuffer buffer, int start, int end);
+
+        /**
+         * Appends the bytes of the record in the carry-over buffer, and returns the position after them.
+         */
+        abstract int fill(ByteBuffer chunk, int position, int limit);
+
+        abstract boolean isCarryComplete();
+
+        // Copies the carried record out, so the carry-over buffer can be reused.
+        R carried() {
+            byte[] bytes = new byte[carry.position()];
+            carry.flip();
+            carry.get(bytes);
+            carry.clear();
+            return record(ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+
+        void append(ByteBuffer chunk, int from, int to) {
+            if (to - from > carry.remaining()) {
+                throw tooLong();
+            }
+            for (int i = from; i < to; i++) {
+                carry.put(chunk.get(i));
+            }
+        }
+
+        IllegalStateException tooLong() {
+            return new IllegalStateException("Record longer than " + maxLength + " bytes");
+        }
+
+    }
+
+    private static final class LineDecoder extends Decoder<CharSequence> {
+
+        private final Charset charset;
+        private final boolean singleByte;
+
+        private LineDecoder(int maxLineLength, Charset charset, boolean singleByte) {
+            super(maxLineLength, 2);
+            this.charset = charset;
+            this.singleByte = singleByte;
+        }
+
+        @Override
+        CharSequence finish() {
+            return carry.position() > 0 ? carried() : null;
+        }
+
+        @Override
+        int frameEnd(ByteBuffer chunk, int start, int limit) {
+            int newline = indexOfNewline(chunk, start, limit);
+            return newline < 0 ? -1 : newline + 1;
+        }
+
+        @Override
+        CharSequence record(ByteBuffer buffer, int start, int end) {
+            if (end > start && buffer.get(end - 1) == '\n') {
+                end--;
+            }
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end - start > maxLength) {
+                throw tooLong();
+            }
+            if (singleByte) {
+                return new ByteCharSequence(buffer, start, end - start);
+            }
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(end).position(start);
+            return charset.decode(bytes).toString();
+        }
+
+        @Override
+        int fill(ByteBuffer chunk, int position, int limit) {
+            int end = frameEnd(chunk, position, limit);
+            int to = end < 0 ? limit : end;
+            append(chunk, position, to);
+            return to;
+        }
+
+        @Override
+        boolean isCarryComplete() {
+            return carry.get(carry.position() - 1) == '\n';
+        }
+
+        private static int indexOfNewline(ByteBuffer chunk, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (chunk.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+    private static final class LengthPrefixedDecoder extends Decoder<ByteBuffer> {
+
+        private LengthPrefixedDecoder(int maxRecordLength) {
+            super(maxRecordLength, LENGTH_PREFIX_BYTES);
+        }
+
+        @Override
+        ByteBuffer finish() {
+            if (carry.position() > 0) {
+                throw new IllegalStateException("Incomplete record at the end: " + carry.position() + " bytes");
+            }
+            return null;
+        }
+
+        @Override
+        int frameEnd(ByteBuffer chunk, int start, int limit) {
+            if (limit - start < LENGTH_PREFIX_BYTES) {
+                return -1;
+            }
+            long end = (long) start + LENGTH_PREFIX_BYTES + length(chunk.getInt(start));
+            return end <= limit ? (int) end : -1;
+        }
+
+        @Override
+        ByteBuffer record(ByteBuffer buffer, int start, int end) {
+            ByteBuffer record = buffer.asReadOnlyBuffer();
+            record.limit(end).position(start + LENGTH_PREFIX_BYTES);
+            return record.slice();
+        }
+
+        // Completes the prefix first, then the bytes it announces.
+        @Override
+        int fill(ByteBuffer chunk, int position, int limit) {
+            if (carry.position() < LENGTH_PREFIX_BYTES) {
+                int to = Math.min(limit, position + LENGTH_PREFIX_BYTES - carry.position());
+                append(chunk, position, to);
+                position = to;
+                if (carry.position() < LENGTH_PREFIX_BYTES) {
+                    return position;
+                }
+            }
+            int missing = LENGTH_PREFIX_BYTES + length(carry.getInt(0)) - carry.position();
+            int to = Math.min(limit, position + missing);
+            append(chunk, position, to);
+            return to;
+        }
+
+        @Override
+        boolean isCarryComplete() {
+            return carry.position() >= LENGTH_PREFIX_BYTES
+                && carry.position() == LENGTH_PREFIX_BYTES + carry.getInt(0);
+        }
+
+        private int length(int prefix) {
+            if (prefix < 0 || prefix > maxLength) {
+                throw new IllegalStateException("Record length " + prefix + " is not in [0, " + maxLength + "]");
+            }
+            return prefix;
+        }
+
+    }
+
+    // One character per byte, read from the buffer on demand.
+    private static final class ByteCharSequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        private ByteCharSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            Objects.checkIndex(index, length);
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            Objects.checkFromToIndex(start, end, length);
+            return new ByteCharSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+            }
+            return new String(chars);
+        }
+
+    }
+
+}
@@ -0,0 +1,549 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * A hot {@link Flux}, like {@code publish()}, but the items are kept in a ring buffer, so late subscribers can get the
+ * latest items replayed, limited by count and / or age.
+ *
+ * The source is requested without limit, and it writes the ring buffer without any locking. Each subscriber reads the
+ * ring buffer with its own cursor, so the source never waits for the subscribers: a subscriber which falls behind by
+ * more than the capacity of the ring buffer either gets dropped with an overflow error, or skips to the latest item,
+ * depending on the {@link Overflow} policy.
+ *
+ * The items are delivered on the thread of the source while the subscriber has demand. A subscriber doing slow work
+ * should use {@code publishOn}, so its backlog waits in the ring buffer and not in the source.
+ *
+ * Usage: {@code RingBufferFlux.builder(quotes).capacity(1024).replayLast(10).build().autoConnect()}
+ */
+public final class RingBufferFlux<T> extends ConnectableFlux<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<RingBufferFlux, SourceSubscriber> CONNECTION =
+        AtomicReferenceFieldUpdater.newUpdater(RingBufferFlux.class, SourceSubscriber.class, "connection");
+    private static final Inner<?>[] EMPTY = new Inner[0];
+
+    /**
+     * What to do with a subscriber which falls behind by more than the capacity of the ring buffer.
+     */
+    public enum Overflow {
+        /**
+         * Cancel the subscriber with an overflow error.
+         */
+        DROP_SUBSCRIBER,
+        /**
+         * Skip the missed items, and continue with the latest one.
+         */
+        CONFLATE
+    }
+
+    private final Publisher<? extends T> source;
+    private final int capacity;
+    private final int length;
+    private final int replayCount;
+    private final long replayAgeNanos;
+    private final Scheduler clock;
+    private final Overflow overflow;
+
+    private volatile SourceSubscriber<T> connection;
+
+    private RingBufferFlux(Builder<T> builder) {
+        this.source = builder.source;
+        this.capacity = builder.capacity;
+        // The smallest power of two above the capacity, so there is at least one more slot than the capacity, and a
+        // slot is never overwritten while a subscriber lagging by the full capacity reads it.
+        this.length = Integer.highestOneBit(builder.capacity) << 1;
+        this.replayAgeNanos = builder.replayAge == null ? Long.MAX_VALUE : builder.replayAge.toNanos();
+        this.replayCount = builder.replayAge != null && builder.replayCount == 0 ? builder.capacity
+            : builder.replayCount;
+        this.clock = builder.clock;
+        this.overflow = builder.overflow;
+    }
+
+    public static <T> Builder<T> builder(Publisher<? extends T> source) {
+        return new Builder<>(source);
+    }
+
+    /**
+     * Subscribes to the source. While connected, the later calls get the same connection. Once the connection is
+     * disposed, or the source terminated, the next call connects again, with an empty ring buffer, like with
+     * {@code refCount()}.
+     */
+    @Override
+    public void connect(Consumer<? super Disposable> cancelSupport) {
+        SourceSubscriber<T> current;
+        for (;;) {
+            current = connection;
+            if (current == null || current.isDisposed() || current.done) {
+                SourceSubscriber<T> created = new SourceSubscriber<>(this);
+                if (!CONNECTION.compareAndSet(this, current, created)) {
+                    continue;
+                }
+                current = created;
+            }
+            break;
+        }
+        cancelSupport.accept(current);
+        if (current.tryConnect()) {
+            source.subscribe(current);
+        }
+    }
+
+    /**
+     * Subscribes to the current connection, even if it is not connected yet, or its source already terminated, so
+     * the subscriber still gets the replayed items. Only a disposed connection is replaced.
+     */
+    @Override
+    public void subscribe(CoreSubscriber<? super T> actual) {
+        Inner<T> inner = new Inner<>(actual);
+        actual.onSubscribe(inner);
+        for (;;) {
+            SourceSubscriber<T> current = connection;
+            if (current == null || current.isDisposed()) {
+                SourceSubscriber<T> created = new SourceSubscriber<>(this);
+                if (!CONNECTION.compareAndSet(this, current, created)) {
+                    continue;
+                }
+                current = created;
+            }
+            if (current.attach(inner)) {
+                return;
+            }
+        }
+    }
+
+    // The state of one connection: the ring buffer, the cursor of the source and the subscribers.
+    private static final class SourceSubscriber<T> implements CoreSubscriber<T>, Disposable {
+        private static final VarHandle PRODUCED;
+
+        static {
+            try {
+                PRODUCED = MethodHandles.lookup().findVarHandle(SourceSubscriber.class, "produced", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<SourceSubscriber, Subscription> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(SourceSubscriber.class, Subscription.class, "upstream");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<SourceSubscriber, Inner[]> SUBSCRIBERS =
+            AtomicReferenceFieldUpdater.newUpdater(SourceSubscriber.class, Inner[].class, "subscribers");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<SourceSubscriber> CONNECTED =
+            AtomicIntegerFieldUpdater.newUpdater(SourceSubscriber.class, "connected");
+
+        private final RingBufferFlux<T> parent;
+        private final int mask;
+        private final Object[] items;
+        private final long[] timestamps;
+
+        private volatile Subscription upstream;
+        private volatile Inner<T>[] subscribers;
+        private volatile int connected;
+        // Written with release semantics only, by the single source thread.
+        private long produced;
+        private volatile boolean done;
+        private Throwable error;
+        private boolean terminated;
+
+        @SuppressWarnings("unchecked")
+        SourceSubscriber(RingBufferFlux<T> parent) {
+            this.parent = parent;
+            this.mask = parent.length - 1;
+            this.items = new Object[parent.length];
+            this.timestamps = parent.clock == null ? null : new long[parent.length];
+            this.subscribers = (Inner<T>[]) EMPTY;
+        }
+
+        boolean tryConnect() {
+            return connected == 0 && CONNECTED.compareAndSet(this, 0, 1);
+        }
+
+        // Returns false if the connection was disposed meanwhile, so the subscriber needs a new one.
+        boolean attach(Inner<T> inner) {
+            inner.cursor = replayStart();
+            inner.connection = this;
+            if (inner.cancelled) {
+                return true;
+            }
+            if (!add(inner)) {
+                return false;
+            }
+            if (inner.cancelled) {
+                remove(inner);
+            } else {
+                inner.drain(false);
+                inner.subscribed = true;
+            }
+            return true;
+        }
+
+        private long replayStart() {
+            long end = (long) PRODUCED.getAcquire(this);
+            long start = Math.max(0, end - parent.replayCount);
+            if (timestamps != null) {
+                long oldest = parent.clock.now(TimeUnit.NANOSECONDS) - parent.replayAgeNanos;
+                while (start < end && timestamps[(int) (start & mask)] < oldest) {
+                    start++;
+                }
+            }
+            return start;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.setOnce(UPSTREAM, this, subscription)) {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (terminated) {
+                return;
+            }
+            long index = produced;
+            int slot = (int) (index & mask);
+            items[slot] = item;
+            if (timestamps != null) {
+                timestamps[slot] = parent.clock.now(TimeUnit.NANOSECONDS);
+            }
+            PRODUCED.setRelease(this, index + 1);
+            for (Inner<T> inner : subscribers) {
+                inner.signal();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (terminated) {
+                Operators.onErrorDropped(throwable, Context.empty());
+                return;
+            }
+            terminated = true;
+            onTerminate(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!terminated) {
+                terminated = true;
+                onTerminate(null);
+            }
+        }
+
+        private void onTerminate(Throwable throwable) {
+            error = throwable;
+            done = true;
+            for (Inner<T> inner : subscribers) {
+                inner.signal();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            Operators.terminate(UPSTREAM, this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return upstream == Operators.cancelledSubscription();
+        }
+
+        // Returns the item at the given index, or null if it was overwritten meanwhile.
+        @SuppressWarnings("unchecked")
+        private T read(long index) {
+            Object item = items[(int) (index & mask)];
+            VarHandle.loadLoadFence();
+            if ((long) PRODUCED.getAcquire(this) - index > mask) {
+                return null;
+            }
+            return (T) item;
+        }
+
+        private boolean add(Inner<T> inner) {
+            for (;;) {
+                Inner<T>[] current = subscribers;
+                if (isDisposed()) {
+                    return false;
+                }
+                @SuppressWarnings("unchecked")
+                Inner<T>[] next = new Inner[current.length + 1];
+                System.arraycopy(current, 0, next, 0, current.length);
+                next[current.length] = inner;
+                if (SUBSCRIBERS.compareAndSet(this, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private void remove(Inner<T> inner) {
+            for (;;) {
+                Inner<T>[] current = subscribers;
+                int index = -1;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i] == inner) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                @SuppressWarnings("unchecked")
+                Inner<T>[] next = current.length == 1 ? (Inner<T>[]) EMPTY : new Inner[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+                if (SUBSCRIBERS.compareAndSet(this, current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Inner<T> implements Subscription {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<Inner> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(Inner.class, "requested");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Inner> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(Inner.class, "wip");
+
+        private final CoreSubscriber<? super T> actual;
+        // Set once, when attached to a connection, before it becomes visible to the source thread.
+        private volatile SourceSubscriber<T> connection;
+        // Index of the next item to deliver, only accessed in drain(), or in emitDirect() once direct is set.
+        private long cursor;
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        private volatile boolean subscribed;
+        // Set by the source thread, once the subscriber is caught up and has unbounded demand. From then on, only the
+        // source thread delivers the items, without the cost of the work-in-progress counter.
+        private volatile boolean direct;
+
+        Inner(CoreSubscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain(false);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                SourceSubscriber<T> current = connection;
+                if (current != null) {
+                    current.remove(this);
+                }
+            }
+        }
+
+        // Called by the source thread, after publishing an item or the terminal signal.
+        void signal() {
+            if (direct) {
+                emitDirect();
+            } else {
+                drain(true);
+            }
+        }
+
+        private void emitDirect() {
+            SourceSubscriber<T> c = connection;
+            long end = c.produced;
+            while (cursor != end) {
+                if (cancelled) {
+                    return;
+                }
+                @SuppressWarnings("unchecked")
+                T item = (T) c.items[(int) (cursor & c.mask)];
+                actual.onNext(item);
+                cursor++;
+            }
+            if (c.done && !cancelled) {
+                terminate();
+            }
+        }
+
+        private void drain(boolean fromSource) {
+            // Requested before being attached, the first drain happens when attached.
+            SourceSubscriber<T> c = connection;
+            if (c == null) {
+                return;
+            }
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+            // Once direct, only the source thread delivers, and the counter is not released anymore.
+            if (direct && !fromSource) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (cancelled) {
+                    return;
+                }
+                // Read the terminal state first, so no item published before it can be missed.
+                boolean done = c.done;
+                long end = (long) SourceSubscriber.PRODUCED.getAcquire(c);
+                long r = requested;
+                long emitted = 0;
+
+                while (cursor != end) {
+                    if (end - cursor > c.parent.capacity && !overflow(end)) {
+                        return;
+                    }
+                    if (emitted == r) {
+                        break;
+                    }
+                    T item = c.read(cursor);
+                    if (item == null) {
+                        // Overwritten while reading, the overflow is handled in the next round.
+                        end = (long) SourceSubscriber.PRODUCED.getAcquire(c);
+                        continue;
+                    }
+                    actual.onNext(item);
+                    if (cancelled) {
+                        return;
+                    }
+                    cursor++;
+                    emitted++;
+                }
+
+                if (done && cursor == end) {
+                    terminate();
+                    return;
+                }
+                if (r == Long.MAX_VALUE) {
+                    if (fromSource && subscribed && cursor == end) {
+                        direct = true;
+                    }
+                } else if (emitted != 0) {
+                    REQUESTED.addAndGet(this, -emitted);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void terminate() {
+            cancelled = true;
+            connection.remove(this);
+            Throwable error = connection.error;
+            if (error != null) {
+                actual.onError(error);
+            } else {
+                actual.onComplete();
+            }
+        }
+
+        // Handles falling behind the source, returns whether the subscriber can continue.
+        private boolean overflow(long end) {
+            if (connection.parent.overflow == Overflow.CONFLATE) {
+                cursor = end - 1;
+                return true;
+            }
+            cancelled = true;
+            connection.remove(this);
+            actual.onError(Exceptions.failWithOverflow("Subscriber fell behind by more than the ring buffer capacity"));
+            return false;
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Publisher<? extends T> source;
+        private int capacity = 256;
+        private int replayCount;
+        private Duration replayAge;
+        private Scheduler clock;
+        private Overflow overflow = Overflow.DROP_SUBSCRIBER;
+
+        private Builder(Publisher<? extends T> source) {
+            this.source = Objects.requireNonNull(source, "source");
+        }
+
+        /**
+         * Maximum number of items a subscriber can fall behind, and also the maximum number of items to replay.
+         */
+        public Builder<T> capacity(int capacity) {
+            // The length of the ring buffer is the next power of two, which has to fit into an int.
+            if (capacity <= 0 || capacity >= 1 << 30) {
+                throw new IllegalArgumentException("0 < capacity < 2^30 required but it was " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Replays the latest {@code count} items to each new subscriber. By default nothing is replayed.
+         */
+        public Builder<T> replayLast(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count >= 0 required but it was " + count);
+            }
+            this.replayCount = count;
+            return this;
+        }
+
+        /**
+         * Replays the items which are not older than {@code age} to each new subscriber. Combined with
+         * {@link #replayLast(int)}, both limits apply.
+         */
+        public Builder<T> replayFor(Duration age) {
+            return replayFor(age, Schedulers.parallel());
+        }
+
+        /**
+         * Same as {@link #replayFor(Duration)}, but the age is measured with the clock of the given {@link Scheduler}.
+         */
+        public Builder<T> replayFor(Duration age, Scheduler clock) {
+            this.replayAge = Objects.requireNonNull(age, "age");
+            this.clock = Objects.requireNonNull(clock, "clock");
+            return this;
+        }
+
+        public Builder<T> overflow(Overflow overflow) {
+            this.overflow = Objects.requireNonNull(overflow, "overflow");
+            return this;
+        }
+
+        public RingBufferFlux<T> build() {
+            if (replayCount > capacity) {
+                throw new IllegalArgumentException("replay count can not exceed the capacity " + capacity);
+            }
+            return new RingBufferFlux<>(this);
+        }
+    }
+
+}
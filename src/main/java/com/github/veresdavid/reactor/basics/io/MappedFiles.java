@@ -0,0 +1,223 @@
+package com.github.veresdavid.reactor.basics.io;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads a file as a {@link Flux} of {@link ByteBuffer} chunks, and writes a {@link Flux} of {@link ByteBuffer} chunks
+ * to a file, without copying the bytes into heap arrays.
+ *
+ * {@link #read(Path)} maps the file into memory window by window, and emits read-only slices of the current window,
+ * so the bytes are only paged in from the file when someone reads the chunks. The chunks are generated on request, so
+ * a slow subscriber never gets more chunks than it asked for. A chunk stays valid after the end of the {@link Flux},
+ * as long as it is referenced, but it also keeps its whole window mapped, so the chunks shouldn't be collected.
+ *
+ * {@link #write(Publisher, Path)} requests the chunks in batches, and writes each batch with a single gathering write
+ * on a {@link FileChannel}, reusing the same array of buffers for every batch. The chunks are only written, so any
+ * {@link ByteBuffer} works, not only the ones of {@link #read(Path)}.
+ *
+ * Both of them block on file IO, so they should be subscribed on {@code Schedulers.boundedElastic()}.
+ *
+ * Usage: {@code MappedFiles.write(MappedFiles.read(source), target).subscribeOn(Schedulers.boundedElastic())}
+ */
+public final class MappedFiles {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final int DEFAULT_GATHER = 16;
+
+    private MappedFiles() {
+    }
+
+    /**
+     * Reads the file in 64 KiB chunks, mapping 256 MiB of it at a time.
+     */
+    public static Flux<ByteBuffer> read(Path path) {
+        return read(path, DEFAULT_CHUNK_SIZE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Reads the file in chunks of {@code chunkSize} bytes, only the last one can be shorter. The file is mapped
+     * {@code windowSize} bytes at a time, rounded down to a multiple of {@code chunkSize}, so the chunks never span two
+     * windows.
+     */
+    public static Flux<ByteBuffer> read(Path path, int chunkSize, long windowSize) {
+        Objects.requireNonNull(path, "path");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize > 0 required but it was " + chunkSize);
+        }
+        if (windowSize < chunkSize || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("chunkSize <= windowSize <= Integer.MAX_VALUE required but it was "
+                + windowSize);
+        }
+        long alignedWindowSize = windowSize - windowSize % chunkSize;
+        return Flux.generate(
+            () -> new Reader(FileChannel.open(path, StandardOpenOption.READ), chunkSize, alignedWindowSize),
+            Reader::next,
+            Reader::close);
+    }
+
+    /**
+     * Writes the chunks to the file in batches of 16, creating or truncating it.
+     */
+    public static Mono<Long> write(Publisher<? extends ByteBuffer> source, Path path) {
+        return write(source, path, DEFAULT_GATHER);
+    }
+
+    /**
+     * Writes the chunks to the file, creating or truncating it, with a gathering write for every {@code gather}
+     * chunks. The {@link Mono} completes with the number of bytes written, once the source completed and all the
+     * chunks are written. Like with any channel write, the position of each chunk ends up at its limit.
+     */
+    public static Mono<Long> write(Publisher<? extends ByteBuffer> source, Path path, int gather) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(path, "path");
+        if (gather <= 0) {
+            throw new IllegalArgumentException("gather > 0 required but it was " + gather);
+        }
+        return Mono.using(
+            () -> FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING),
+            channel -> Mono.create(sink -> {
+                Writer writer = new Writer(channel, gather, sink);
+                sink.onCancel(writer);
+                source.subscribe(writer);
+            }),
+            MappedFiles::close);
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Reader {
+
+        private final FileChannel channel;
+        private final int chunkSize;
+        private final long windowSize;
+        private final long size;
+
+        private long windowPosition;
+        private MappedByteBuffer window;
+
+        private Reader(FileChannel channel, int chunkSize, long windowSize) throws IOException {
+            this.channel = channel;
+            this.chunkSize = chunkSize;
+            this.windowSize = windowSize;
+            this.size = channel.size();
+        }
+
+        private Reader next(SynchronousSink<ByteBuffer> sink) {
+            if (window == null || !window.hasRemaining()) {
+                if (windowPosition >= size) {
+                    sink.complete();
+                    return this;
+                }
+                try {
+                    long length = Math.min(windowSize, size - windowPosition);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowPosition, length);
+                    windowPosition += length;
+                } catch (IOException e) {
+                    sink.error(e);
+                    return this;
+                }
+            }
+            // The slices of a read-only mapping are read-only too.
+            int length = Math.min(chunkSize, window.remaining());
+            ByteBuffer chunk = window.slice();
+            chunk.limit(length);
+            window.position(window.position() + length);
+            sink.next(chunk);
+            return this;
+        }
+
+        private void close() {
+            window = null;
+            MappedFiles.close(channel);
+        }
+
+    }
+
+    private static final class Writer extends BaseSubscriber<ByteBuffer> {
+
+        private final FileChannel channel;
+        private final ByteBuffer[] batch;
+        private final MonoSink<Long> sink;
+
+        private int count;
+        private long written;
+
+        private Writer(FileChannel channel, int gather, MonoSink<Long> sink) {
+            this.channel = channel;
+            this.batch = new ByteBuffer[gather];
+            this.sink = sink;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(batch.length);
+        }
+
+        @Override
+        protected void hookOnNext(ByteBuffer chunk) {
+            batch[count++] = chunk;
+            if (count == batch.length && flush()) {
+                request(batch.length);
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            if (flush()) {
+                sink.success(written);
+            }
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            sink.error(throwable);
+        }
+
+        // Writes the whole batch, a gathering write may write only some of the chunks at once.
+        private boolean flush() {
+            try {
+                int offset = 0;
+                while (offset < count) {
+                    written += channel.write(batch, offset, count - offset);
+                    while (offset < count && !batch[offset].hasRemaining()) {
+                        offset++;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                cancel();
+                sink.error(e);
+                return false;
+            } finally {
+                Arrays.fill(batch, 0, count, null);
+                count = 0;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.github.veresdavid.reactor.basics.metrics;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Scannable;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Metrics hook, which can be attached to any point of a chain, to see where the time goes inside of it.
+ *
+ * Each named stage records the number and rate of elements going through it, the latency of the part of the chain
+ * below it (in an HdrHistogram), the outstanding demand of its subscribers, and the fill level of the queue of the
+ * operator right above it (if it has one). The metrics are kept in process, and can be read any time with
+ * {@link #snapshot()}.
+ *
+ * When disabled, the stage does not even wrap the subscriber, so the only cost left is a flag check per subscription.
+ *
+ * Usage: {@code Flux.zip(name, rank, saberColor).transform(PipelineMetrics.stage("zip")).map(this::tupleToJedi)}
+ */
+public final class PipelineMetrics {
+
+    private static final ConcurrentMap<String, StageStats> STAGES = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    private PipelineMetrics() {
+    }
+
+    public static <T> Function<Publisher<T>, Publisher<T>> stage(String name) {
+        return stage(name, 1);
+    }
+
+    /**
+     * Same as {@link #stage(String)}, but it measures the latency and the queue fill only for every
+     * {@code samplingInterval}th element, as measuring time is more expensive than the other metrics.
+     */
+    public static <T> Function<Publisher<T>, Publisher<T>> stage(String name, int samplingInterval) {
+        Objects.requireNonNull(name, "name");
+        if (samplingInterval <= 0) {
+            throw new IllegalArgumentException("samplingInterval > 0 required but it was " + samplingInterval);
+        }
+        Function<? super Publisher<T>, ? extends Publisher<T>> lift = Operators.<T, T>lift((scannable, actual) -> {
+            if (!enabled) {
+                return actual;
+            }
+            StageStats stats = STAGES.computeIfAbsent(name, StageStats::new);
+            return new MetricsSubscriber<>(actual, stats, samplingInterval);
+        });
+        return lift::apply;
+    }
+
+    /**
+     * Turns the metrics on or off for the subscriptions made afterwards.
+     */
+    public static void setEnabled(boolean enabled) {
+        PipelineMetrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the current metrics of all the stages, ordered by name.
+     */
+    public static Map<String, StageSnapshot> snapshot() {
+        Map<String, StageSnapshot> snapshots = new TreeMap<>();
+        STAGES.forEach((name, stats) -> snapshots.put(name, stats.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Returns the current metrics of one stage, or null if it had no subscribers yet.
+     */
+    public static StageSnapshot snapshot(String name) {
+        StageStats stats = STAGES.get(name);
+        return stats == null ? null : stats.snapshot();
+    }
+
+    public static void reset() {
+        STAGES.clear();
+    }
+
+    private static final class MetricsSubscriber<T> implements CoreSubscriber<T>, Subscription {
+        private static final AtomicLongFieldUpdater<MetricsSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(MetricsSubscriber.class, "requested");
+        private static final AtomicLongFieldUpdater<MetricsSubscriber> OUTSTANDING =
+            AtomicLongFieldUpdater.newUpdater(MetricsSubscriber.class, "outstanding");
+        private static final AtomicIntegerFieldUpdater<MetricsSubscriber> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(MetricsSubscriber.class, "terminated");
+        // The outstanding demand of the subscriber is not counted anymore, as it became unbounded or terminated.
+        private static final long CLOSED = -1;
+
+        private final CoreSubscriber<? super T> actual;
+        private final StageStats stats;
+        private final int samplingInterval;
+        private Subscription upstream;
+        private Scannable upstreamOperator;
+        private int untilSample;
+        private volatile long requested;
+        // The part of the outstanding demand of the stage which belongs to this subscriber, or CLOSED. It is changed
+        // from onNext, request and cancel, which can run on different threads.
+        private volatile long outstanding;
+        private volatile int terminated;
+
+        MetricsSubscriber(CoreSubscriber<? super T> actual, StageStats stats, int samplingInterval) {
+            this.actual = actual;
+            this.stats = stats;
+            this.samplingInterval = samplingInterval;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                upstreamOperator = subscription instanceof Scannable ? (Scannable) subscription : null;
+                stats.subscriptions.increment();
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            stats.elements.increment();
+            if (requested != Long.MAX_VALUE) {
+                fulfillOne();
+            }
+            if (--untilSample > 0) {
+                actual.onNext(value);
+                return;
+            }
+            untilSample = samplingInterval;
+            if (upstreamOperator != null) {
+                Integer buffered = upstreamOperator.scan(Scannable.Attr.BUFFERED);
+                if (buffered != null) {
+                    stats.queueFill.recordValue(buffered);
+                }
+            }
+            long start = System.nanoTime();
+            actual.onNext(value);
+            stats.downstreamLatency.recordValue(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            terminate();
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            terminate();
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                long previous = Operators.addCap(REQUESTED, this, n);
+                if (previous != Long.MAX_VALUE) {
+                    // Demand adding up to Long.MAX_VALUE is unbounded too, as addCap capped it there.
+                    if (n >= Long.MAX_VALUE - previous) {
+                        stats.unboundedSubscribers.increment();
+                        closeOutstanding();
+                    } else {
+                        addOutstanding(n);
+                    }
+                }
+            }
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            terminate();
+            upstream.cancel();
+        }
+
+        // Removes the remaining demand of this subscriber from the stage.
+        private void terminate() {
+            if (!TERMINATED.compareAndSet(this, 0, 1)) {
+                return;
+            }
+            if (requested == Long.MAX_VALUE) {
+                stats.unboundedSubscribers.decrement();
+            }
+            closeOutstanding();
+        }
+
+        private void addOutstanding(long n) {
+            for (;;) {
+                long current = outstanding;
+                if (current == CLOSED) {
+                    return;
+                }
+                if (OUTSTANDING.compareAndSet(this, current, current + n)) {
+                    stats.outstandingDemand.add(n);
+                    return;
+                }
+            }
+        }
+
+        private void fulfillOne() {
+            for (;;) {
+                long current = outstanding;
+                if (current <= 0) {
+                    return;
+                }
+                if (OUTSTANDING.compareAndSet(this, current, current - 1)) {
+                    stats.outstandingDemand.decrement();
+                    return;
+                }
+            }
+        }
+
+        private void closeOutstanding() {
+            long current = OUTSTANDING.getAndSet(this, CLOSED);
+            if (current > 0) {
+                stats.outstandingDemand.add(-current);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.github.veresdavid.reactor.basics.metrics;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Point in time view of the metrics of one stage.
+ */
+public final class StageSnapshot {
+
+    private final String name;
+    private final long elements;
+    private final double elementsPerSecond;
+    private final long subscriptions;
+    private final long outstandingDemand;
+    private final long unboundedSubscribers;
+    private final Histogram downstreamLatency;
+    private final Histogram queueFill;
+
+    StageSnapshot(String name, long elements, double elementsPerSecond, long subscriptions, long outstandingDemand,
+                  long unboundedSubscribers, Histogram downstreamLatency, Histogram queueFill) {
+        this.name = name;
+        this.elements = elements;
+        this.elementsPerSecond = elementsPerSecond;
+        this.subscriptions = subscriptions;
+        this.outstandingDemand = outstandingDemand;
+        this.unboundedSubscribers = unboundedSubscribers;
+        this.downstreamLatency = downstreamLatency;
+        this.queueFill = queueFill;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of elements which went through the stage.
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * Average element rate since the stage was created.
+     */
+    public double getElementsPerSecond() {
+        return elementsPerSecond;
+    }
+
+    public long getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * Requested, but not yet delivered elements of the active subscriptions with bounded demand.
+     */
+    public long getOutstandingDemand() {
+        return outstandingDemand;
+    }
+
+    /**
+     * Number of active subscriptions which requested an unbounded amount of elements.
+     */
+    public long getUnboundedSubscribers() {
+        return unboundedSubscribers;
+    }
+
+    /**
+     * Nanoseconds spent downstream of the stage for each (sampled) element, in other words, the latency of the rest of
+     * the synchronous part of the chain.
+     */
+    public Histogram getDownstreamLatency() {
+        return downstreamLatency;
+    }
+
+    /**
+     * Number of elements buffered in the operator right before the stage, sampled while the elements go through.
+     * It is only recorded if that operator has a queue, like publishOn or flatMap.
+     */
+    public Histogram getQueueFill() {
+        return queueFill;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{" +
+            "elements=" + elements +
+            ", elementsPerSecond=" + String.format("%.1f", elementsPerSecond) +
+            ", subscriptions=" + subscriptions +
+            ", outstandingDemand=" + outstandingDemand +
+            ", unboundedSubscribers=" + unboundedSubscribers +
+            ", downstreamLatencyP50=" + downstreamLatency.getValueAtPercentile(50) +
+            ", downstreamLatencyP99=" + downstreamLatency.getValueAtPercentile(99) +
+            ", queueFillMax=" + queueFill.getMaxValue() +
+            '}';
+    }
+
+}
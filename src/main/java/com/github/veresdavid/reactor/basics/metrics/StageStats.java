@@ -0,0 +1,49 @@
+package com.github.veresdavid.reactor.basics.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The live, concurrently updated metrics of one stage. See {@link StageSnapshot} for the meaning of the values.
+ */
+final class StageStats {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String name;
+    private final long createdNanos = System.nanoTime();
+
+    final LongAdder elements = new LongAdder();
+    final LongAdder subscriptions = new LongAdder();
+    final LongAdder outstandingDemand = new LongAdder();
+    final LongAdder unboundedSubscribers = new LongAdder();
+    final Recorder downstreamLatency = new Recorder(SIGNIFICANT_DIGITS);
+    final Recorder queueFill = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final Histogram downstreamLatencyTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram queueFillTotal = new Histogram(SIGNIFICANT_DIGITS);
+
+    StageStats(String name) {
+        this.name = name;
+    }
+
+    synchronized StageSnapshot snapshot() {
+        downstreamLatencyTotal.add(downstreamLatency.getIntervalHistogram());
+        queueFillTotal.add(queueFill.getIntervalHistogram());
+        long elapsedNanos = Math.max(1, System.nanoTime() - createdNanos);
+        long elementCount = elements.sum();
+        return new StageSnapshot(
+            name,
+            elementCount,
+            elementCount * 1_000_000_000d / elapsedNanos,
+            subscriptions.sum(),
+            outstandingDemand.sum(),
+            unboundedSubscribers.sum(),
+            downstreamLatencyTotal.copy(),
+            queueFillTotal.copy()
+        );
+    }
+
+}
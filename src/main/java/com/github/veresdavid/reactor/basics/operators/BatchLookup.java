@@ -0,0 +1,69 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Replaces a per-id lookup, like {@code flux.flatMapSequential(this::findById)}, with bulk lookups.
+ *
+ * The ids are collected into batches, either until a batch is full or until the max wait time passes since the first
+ * id of the batch arrived. Each batch is resolved with one call of the bulk lookup function, then the values are
+ * emitted in the order of the incoming ids. Ids which are missing from the result map are skipped, just like an
+ * empty {@link Mono} would be skipped by flatMap. Duplicated ids are only looked up once per batch.
+ *
+ * Usage: {@code ids.transform(BatchLookup.of(100, Duration.ofMillis(10), this::findAllByIds))}
+ */
+public final class BatchLookup {
+
+    private BatchLookup() {
+    }
+
+    public static <K, V> Function<Flux<K>, Flux<V>> of(int maxBatchSize, Duration maxWait,
+                                                       Function<? super List<K>, Mono<Map<K, V>>> bulkLookup) {
+        return of(maxBatchSize, maxWait, 1, bulkLookup);
+    }
+
+    /**
+     * Same as {@link #of(int, Duration, Function)}, but allows up to {@code concurrency} bulk lookups to run at the
+     * same time. The output order still follows the order of the ids.
+     */
+    public static <K, V> Function<Flux<K>, Flux<V>> of(int maxBatchSize, Duration maxWait, int concurrency,
+                                                       Function<? super List<K>, Mono<Map<K, V>>> bulkLookup) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize > 0 required but it was " + maxBatchSize);
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency > 0 required but it was " + concurrency);
+        }
+        Objects.requireNonNull(maxWait, "maxWait");
+        Objects.requireNonNull(bulkLookup, "bulkLookup");
+
+        return ids -> ids
+            .bufferTimeout(maxBatchSize, maxWait)
+            .flatMapSequential(batch -> lookupBatch(batch, bulkLookup), concurrency);
+    }
+
+    private static <K, V> Flux<V> lookupBatch(List<K> batch, Function<? super List<K>, Mono<Map<K, V>>> bulkLookup) {
+        List<K> distinctIds = new ArrayList<>(new LinkedHashSet<>(batch));
+        return bulkLookup.apply(distinctIds)
+            .flatMapIterable(found -> {
+                List<V> values = new ArrayList<>(batch.size());
+                for (K id : batch) {
+                    V value = found.get(id);
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+                return values;
+            });
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs blocking calls, like {@code Mono.fromCallable(...).subscribeOn(Schedulers.boundedElastic())}, but with a
+ * concurrency limit which adapts to the latency of the called service.
+ *
+ * The limit follows the AIMD (additive increase, multiplicative decrease) strategy: each call which finishes within
+ * the target latency increases the limit by {@code 1 / limit}, so roughly by one after a full round of calls, while
+ * a slow or failed call multiplies it by the backoff ratio. Calls over the limit wait in a bounded queue, and when the
+ * queue is full, the call fails with a {@link RejectedExecutionException}.
+ *
+ * The calls run on a dedicated {@link Scheduler} with at most {@code maxLimit} daemon threads, so saturation never
+ * results in more threads. For a {@link Flux}, prefer {@link #mapBlocking(Function)}, which turns saturation into
+ * backpressure: it never has more than {@code maxLimit} items requested, and the ones over the current limit wait
+ * for a free slot instead of being rejected.
+ */
+public final class BlockingBridge implements Disposable {
+
+    private static final int THREAD_TTL_SECONDS = 60;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final Scheduler scheduler;
+
+    private final Queue<PendingCall<?>> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private int queuedCalls;
+
+    private BlockingBridge(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.targetLatencyNanos = builder.targetLatency.toNanos();
+        this.backoffRatio = builder.backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+        this.scheduler = Schedulers.newBoundedElastic(maxLimit, maxLimit, builder.name,
+            THREAD_TTL_SECONDS, true);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Wraps the callable in a {@link Mono}. The callable is invoked once per subscription.
+     */
+    public <T> Mono<T> call(Callable<T> callable) {
+        Objects.requireNonNull(callable, "callable");
+        return Mono.create(sink -> submit(new PendingCall<>(callable, sink), true));
+    }
+
+    /**
+     * Maps each item of a {@link Flux} with a blocking call. At most {@code maxLimit} items are requested at a time,
+     * and as many of them run as the current limit allows, the rest wait in the queue, without counting towards
+     * {@code maxQueueSize}.
+     */
+    public <T, R> Function<Flux<T>, Flux<R>> mapBlocking(Function<? super T, ? extends Callable<R>> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return flux -> flux.flatMap(item -> {
+            Callable<R> callable = mapper.apply(item);
+            return Mono.<R>create(sink -> submit(new PendingCall<>(callable, sink), false));
+        }, maxLimit);
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return scheduler.isDisposed();
+    }
+
+    // The calls of mapBlocking are already bounded by its flatMap, so they are never rejected.
+    private void submit(PendingCall<?> call, boolean bounded) {
+        boolean start = false;
+        boolean rejected = false;
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                start = true;
+            } else if (!bounded || queuedCalls < maxQueueSize) {
+                queue.offer(call);
+                if (bounded) {
+                    queuedCalls++;
+                    call.bounded = true;
+                }
+            } else {
+                rejected = true;
+            }
+        }
+        if (rejected) {
+            call.sink.error(new RejectedExecutionException("Blocking bridge is saturated"));
+            return;
+        }
+        call.sink.onCancel(() -> cancel(call));
+        if (start) {
+            start(call);
+        }
+    }
+
+    // A cancel before the task is set disposes the swap, which then disposes the task right away.
+    private <T> void start(PendingCall<T> call) {
+        long startNanos = System.nanoTime();
+        call.task.update(Mono.fromCallable(call.callable)
+            .subscribeOn(scheduler)
+            .doFinally(signal -> release(startNanos, signal))
+            .subscribe(call.sink::success, call.sink::error, call.sink::success));
+    }
+
+    private void cancel(PendingCall<?> call) {
+        synchronized (this) {
+            if (remove(call)) {
+                return;
+            }
+        }
+        call.task.dispose();
+    }
+
+    private boolean remove(PendingCall<?> call) {
+        if (!queue.remove(call)) {
+            return false;
+        }
+        if (call.bounded) {
+            queuedCalls--;
+        }
+        return true;
+    }
+
+    private void release(long startNanos, SignalType signal) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        PendingCall<?> next;
+        synchronized (this) {
+            inFlight--;
+            if (signal == SignalType.ON_COMPLETE && latencyNanos <= targetLatencyNanos) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            } else if (signal != SignalType.CANCEL) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            }
+            next = pollIfAllowed();
+        }
+        while (next != null) {
+            start(next);
+            synchronized (this) {
+                next = pollIfAllowed();
+            }
+        }
+    }
+
+    private PendingCall<?> pollIfAllowed() {
+        if (inFlight < (int) limit && !queue.isEmpty()) {
+            inFlight++;
+            PendingCall<?> call = queue.poll();
+            if (call.bounded) {
+                queuedCalls--;
+            }
+            return call;
+        }
+        return null;
+    }
+
+    private static final class PendingCall<T> {
+        private final Callable<T> callable;
+        private final MonoSink<T> sink;
+        private final Disposable.Swap task = Disposables.swap();
+        // Whether it counts towards maxQueueSize while queued, guarded by the bridge.
+        private boolean bounded;
+
+        PendingCall(Callable<T> callable, MonoSink<T> sink) {
+            this.callable = callable;
+            this.sink = sink;
+        }
+    }
+
+    public static final class Builder {
+        private int minLimit = 1;
+        private int maxLimit = 10 * Runtime.getRuntime().availableProcessors();
+        private int initialLimit = 4;
+        private int maxQueueSize = 100;
+        private Duration targetLatency = Duration.ofSeconds(1);
+        private double backoffRatio = 0.9;
+        private String name = "blockingBridge";
+
+        private Builder() {
+        }
+
+        public Builder limits(int minLimit, int initialLimit, int maxLimit) {
+            if (minLimit <= 0 || minLimit > maxLimit) {
+                throw new IllegalArgumentException("0 < minLimit <= maxLimit required but they were " + minLimit
+                    + " and " + maxLimit);
+            }
+            this.minLimit = minLimit;
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder maxQueueSize(int maxQueueSize) {
+            if (maxQueueSize < 0) {
+                throw new IllegalArgumentException("maxQueueSize >= 0 required but it was " + maxQueueSize);
+            }
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Calls slower than this count as a sign of an overloaded service, and decrease the limit.
+         */
+        public Builder targetLatency(Duration targetLatency) {
+            this.targetLatency = Objects.requireNonNull(targetLatency, "targetLatency");
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("0 < backoffRatio < 1 required but it was " + backoffRatio);
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = Objects.requireNonNull(name, "name");
+            return this;
+        }
+
+        public BlockingBridge build() {
+            return new BlockingBridge(this);
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A map for functions throwing checked exceptions, without wrapping them with {@code Exceptions.propagate(...)}: the
+ * exception thrown by the function is signalled as it is.
+ *
+ * For failures which are expected, like a missing item, creating the exception usually costs much more than the
+ * lookup itself, because of filling in its stack trace. A {@link StacklessException} skips that, and for the most
+ * common case, {@link NotFoundException#INSTANCE} can be signalled without creating anything.
+ *
+ * Usage: {@code ids.transform(CheckedMap.map(this::findApprenticeById))}
+ */
+public final class CheckedMap {
+
+    private CheckedMap() {
+    }
+
+    /**
+     * A {@link Function}, which can throw checked exceptions.
+     */
+    @FunctionalInterface
+    public interface CheckedFunction<T, R> {
+        R apply(T t) throws Exception;
+    }
+
+    public static <T, R> Function<Flux<T>, Flux<R>> map(CheckedFunction<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return flux -> flux.handle((item, sink) -> {
+            R value;
+            try {
+                value = mapper.apply(item);
+            } catch (Exception exception) {
+                sink.error(exception);
+                return;
+            }
+            if (value == null) {
+                sink.error(new NullPointerException("The mapper returned a null value"));
+            } else {
+                sink.next(value);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #map(CheckedFunction)}, but for a {@link Mono}.
+     */
+    public static <T, R> Function<Mono<T>, Mono<R>> mapMono(CheckedFunction<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return mono -> mono.handle((item, sink) -> {
+            R value;
+            try {
+                value = mapper.apply(item);
+            } catch (Exception exception) {
+                sink.error(exception);
+                return;
+            }
+            if (value == null) {
+                sink.error(new NullPointerException("The mapper returned a null value"));
+            } else {
+                sink.next(value);
+            }
+        });
+    }
+
+    /**
+     * An exception for expected failures, without a stack trace, so it is as cheap to create as any other object. It
+     * does not take suppressed exceptions either, so the assembly traces of Reactor can't pile up on a reused instance.
+     */
+    public static class StacklessException extends RuntimeException {
+        public StacklessException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Signals that the looked up item does not exist.
+     */
+    public static class NotFoundException extends StacklessException {
+        /**
+         * Shared instance, for when the missing id does not need to be part of the message.
+         */
+        public static final NotFoundException INSTANCE = new NotFoundException("Not found");
+
+        public NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+}
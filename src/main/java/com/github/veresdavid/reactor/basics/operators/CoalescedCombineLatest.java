@@ -0,0 +1,379 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A combineLatest for many frequently updating sources, which coalesces the updates, instead of running the
+ * combinator on every single one of them, like {@code Flux.combineLatest(...)} does.
+ *
+ * The latest items are kept in one slot array, which is reused for every combination. An item equal to the one
+ * already in its slot is ignored, and the combinator only runs if at least one slot changed since the previous
+ * combination, and at least the minimum interval passed since then. The updates arriving within the interval are
+ * combined once, when the interval ends. The combinator can also check which slots changed, to only recompute the
+ * affected parts of the result. The combinator gets a copy of the slots, taken when the combination starts, so the
+ * sources are not blocked while it runs.
+ *
+ * The sources are requested without limit, as only their latest item is kept. The result completes when all the
+ * sources completed, right after combining the pending updates, or when a source completes without any items.
+ *
+ * Usage: {@code CoalescedCombineLatest.combineLatest(Duration.ofMillis(100), slots -> average(slots), sensors)}
+ */
+public final class CoalescedCombineLatest {
+
+    private CoalescedCombineLatest() {
+    }
+
+    @FunctionalInterface
+    public interface SlotCombinator<R> {
+        R combine(Slots slots);
+    }
+
+    /**
+     * The latest items of the sources, in the order of the sources. It is only valid during the call of the
+     * combinator.
+     */
+    public static final class Slots {
+        private final Object[] values;
+        private final boolean[] changed;
+
+        Slots(int size) {
+            this.values = new Object[size];
+            this.changed = new boolean[size];
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(int index) {
+            return (T) values[index];
+        }
+
+        /**
+         * Returns whether the slot got a new item since the previous combination.
+         */
+        public boolean isChanged(int index) {
+            return changed[index];
+        }
+
+        public int size() {
+            return values.length;
+        }
+    }
+
+    public static <R> Flux<R> combineLatest(Duration minInterval, SlotCombinator<? extends R> combinator,
+                                            Publisher<?>... sources) {
+        return combineLatest(minInterval, Schedulers.parallel(), combinator, sources);
+    }
+
+    /**
+     * Same as {@link #combineLatest(Duration, SlotCombinator, Publisher[])}, but the interval is measured and the
+     * delayed combinations are run with the given {@link Scheduler}.
+     */
+    public static <R> Flux<R> combineLatest(Duration minInterval, Scheduler scheduler,
+                                            SlotCombinator<? extends R> combinator, Publisher<?>... sources) {
+        Objects.requireNonNull(minInterval, "minInterval");
+        Objects.requireNonNull(scheduler, "scheduler");
+        Objects.requireNonNull(combinator, "combinator");
+        Objects.requireNonNull(sources, "sources");
+        if (minInterval.isNegative()) {
+            throw new IllegalArgumentException("minInterval >= 0 required but it was " + minInterval);
+        }
+        if (sources.length == 0) {
+            return Flux.empty();
+        }
+        Publisher<?>[] copy = sources.clone();
+        return Flux.from(actual -> new Coordinator<R>(Operators.toCoreSubscriber(actual), combinator,
+            minInterval.toNanos(), scheduler, copy.length).subscribe(copy));
+    }
+
+    private static final class Coordinator<R> implements Subscription {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<Coordinator> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(Coordinator.class, "requested");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Coordinator> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(Coordinator.class, "wip");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Coordinator, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(Coordinator.class, Throwable.class, "error");
+
+        private final CoreSubscriber<? super R> actual;
+        private final SlotCombinator<? extends R> combinator;
+        private final long minIntervalNanos;
+        private final Scheduler scheduler;
+        private final Scheduler.Worker worker;
+        private final SlotSubscriber[] subscribers;
+
+        // Guarded by the slots.
+        private final Slots slots;
+        private int present;
+        private int completed;
+        private boolean completedEmpty;
+        private boolean dirty;
+
+        // Only accessed in drain().
+        private final Slots snapshot;
+        private long lastCombination;
+
+        private volatile boolean timerPending;
+
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        Coordinator(CoreSubscriber<? super R> actual, SlotCombinator<? extends R> combinator, long minIntervalNanos,
+                    Scheduler scheduler, int size) {
+            this.actual = actual;
+            this.combinator = combinator;
+            this.minIntervalNanos = minIntervalNanos;
+            this.scheduler = scheduler;
+            this.worker = scheduler.createWorker();
+            this.slots = new Slots(size);
+            this.snapshot = new Slots(size);
+            this.subscribers = new SlotSubscriber[size];
+            for (int i = 0; i < size; i++) {
+                subscribers[i] = new SlotSubscriber(this, i);
+            }
+            this.lastCombination = scheduler.now(TimeUnit.NANOSECONDS) - minIntervalNanos;
+        }
+
+        void subscribe(Publisher<?>[] sources) {
+            actual.onSubscribe(this);
+            for (int i = 0; i < sources.length && !cancelled && error == null; i++) {
+                sources[i].subscribe(subscribers[i]);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelAll();
+                if (WIP.getAndIncrement(this) == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void update(int index, Object value) {
+            boolean combinable;
+            synchronized (slots) {
+                Object previous = slots.values[index];
+                if (previous == null) {
+                    present++;
+                } else if (previous.equals(value)) {
+                    return;
+                }
+                slots.values[index] = value;
+                slots.changed[index] = true;
+                dirty = true;
+                combinable = present == subscribers.length;
+            }
+            // While a delayed combination is pending, the update is combined by the timer anyway.
+            if (combinable && !timerPending) {
+                drain();
+            }
+        }
+
+        void complete(boolean empty) {
+            synchronized (slots) {
+                completed++;
+                completedEmpty |= empty;
+            }
+            drain();
+        }
+
+        void onError(Throwable throwable) {
+            if (ERROR.compareAndSet(this, null, throwable)) {
+                drain();
+            } else {
+                Operators.onErrorDropped(throwable, actual.currentContext());
+            }
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                Throwable throwable = error;
+                if (throwable != null) {
+                    terminate();
+                    actual.onError(throwable);
+                    return;
+                }
+
+                boolean combine = false;
+                boolean finished;
+                long delay = -1;
+                synchronized (slots) {
+                    boolean allCompleted = completed == subscribers.length;
+                    boolean pending = dirty && present == subscribers.length;
+                    finished = completedEmpty || (allCompleted && !pending);
+                    if (!finished && pending && requested != 0 && (allCompleted || !timerPending)) {
+                        long now = scheduler.now(TimeUnit.NANOSECONDS);
+                        long elapsed = now - lastCombination;
+                        if (allCompleted || elapsed >= minIntervalNanos) {
+                            // Only the copy is taken under the lock, the combinator runs outside of it.
+                            System.arraycopy(slots.values, 0, snapshot.values, 0, slots.values.length);
+                            System.arraycopy(slots.changed, 0, snapshot.changed, 0, slots.changed.length);
+                            Arrays.fill(slots.changed, false);
+                            dirty = false;
+                            lastCombination = now;
+                            combine = true;
+                        } else {
+                            timerPending = true;
+                            delay = minIntervalNanos - elapsed;
+                        }
+                    }
+                }
+
+                if (finished) {
+                    terminate();
+                    actual.onComplete();
+                    return;
+                }
+                if (combine) {
+                    R value;
+                    try {
+                        value = Objects.requireNonNull(combinator.combine(snapshot),
+                            "The combinator returned a null value");
+                    } catch (Throwable failure) {
+                        Exceptions.throwIfFatal(failure);
+                        // Dropped like the errors of the sources, if another error got here first.
+                        onError(Operators.onOperatorError(failure, actual.currentContext()));
+                        continue;
+                    }
+                    actual.onNext(value);
+                    if (requested != Long.MAX_VALUE) {
+                        REQUESTED.decrementAndGet(this);
+                    }
+                    // Check again, as the sources could have completed meanwhile.
+                    continue;
+                }
+                if (delay >= 0) {
+                    worker.schedule(this::onTimer, delay, TimeUnit.NANOSECONDS);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void onTimer() {
+            timerPending = false;
+            drain();
+        }
+
+        private void terminate() {
+            cancelled = true;
+            cancelAll();
+            clear();
+        }
+
+        private void cancelAll() {
+            worker.dispose();
+            for (SlotSubscriber subscriber : subscribers) {
+                Operators.terminate(SlotSubscriber.UPSTREAM, subscriber);
+            }
+        }
+
+        private void clear() {
+            synchronized (slots) {
+                Arrays.fill(slots.values, null);
+            }
+            Arrays.fill(snapshot.values, null);
+        }
+
+        Context currentContext() {
+            return actual.currentContext();
+        }
+    }
+
+    private static final class SlotSubscriber implements CoreSubscriber<Object> {
+        private static final AtomicReferenceFieldUpdater<SlotSubscriber, Subscription> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(SlotSubscriber.class, Subscription.class, "upstream");
+
+        private final Coordinator<?> parent;
+        private final int index;
+        private volatile Subscription upstream;
+        private boolean hasValue;
+        private boolean done;
+
+        SlotSubscriber(Coordinator<?> parent, int index) {
+            this.parent = parent;
+            this.index = index;
+        }
+
+        @Override
+        public Context currentContext() {
+            return parent.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.setOnce(UPSTREAM, this, subscription)) {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (done) {
+                Operators.onNextDropped(item, currentContext());
+                return;
+            }
+            hasValue = true;
+            parent.update(index, item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                Operators.onErrorDropped(throwable, currentContext());
+                return;
+            }
+            done = true;
+            parent.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.complete(!hasValue);
+            }
+        }
+    }
+
+}
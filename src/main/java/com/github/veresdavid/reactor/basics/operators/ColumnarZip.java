@@ -0,0 +1,381 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A zip, which builds the result straight from the items of the sources, like
+ * {@code Flux.zip(name, rank, saberColor).map(this::tupleToJedi)}, but without creating an array and a Tuple for
+ * each row.
+ *
+ * The items are collected into a columnar batch, with one array per source, and the combinator reads a row of the
+ * batch by its index. Each source is requested a full batch at a time, and the batch is only reused once all of its
+ * rows were combined, so the arrays are allocated only once per subscription.
+ *
+ * Just like with zip, the result completes when any of the sources completes and all of its items were combined.
+ *
+ * Usage: {@code ColumnarZip.zip((columns, row) -> new Jedi(columns.get(0, row), columns.get(1, row)), name, rank)}
+ */
+public final class ColumnarZip {
+
+    private ColumnarZip() {
+    }
+
+    /**
+     * Combines the rows of a {@link Columns} batch, where each column holds the items of one source, in the order of
+     * the sources.
+     */
+    @FunctionalInterface
+    public interface RowCombinator<R> {
+        R combine(Columns columns, int row);
+    }
+
+    /**
+     * The current batch of items, one column per source. It is only valid during the call of the combinator.
+     */
+    public static final class Columns {
+        private final Object[][] columns;
+
+        Columns(int width, int batchSize) {
+            this.columns = new Object[width][batchSize];
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(int column, int row) {
+            return (T) columns[column][row];
+        }
+
+        public int width() {
+            return columns.length;
+        }
+
+        void clear() {
+            for (Object[] column : columns) {
+                Arrays.fill(column, null);
+            }
+        }
+    }
+
+    public static <R> Flux<R> zip(RowCombinator<? extends R> combinator, Publisher<?>... sources) {
+        return zip(Queues.SMALL_BUFFER_SIZE, combinator, sources);
+    }
+
+    /**
+     * Same as {@link #zip(RowCombinator, Publisher[])}, but with the given number of rows per batch, which is also
+     * the number of items requested from each source at once.
+     */
+    public static <R> Flux<R> zip(int batchSize, RowCombinator<? extends R> combinator, Publisher<?>... sources) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize > 0 required but it was " + batchSize);
+        }
+        Objects.requireNonNull(combinator, "combinator");
+        Objects.requireNonNull(sources, "sources");
+        if (sources.length == 0) {
+            return Flux.empty();
+        }
+        Publisher<?>[] copy = sources.clone();
+        return Flux.from(actual -> new ZipCoordinator<R>(Operators.toCoreSubscriber(actual), combinator, copy.length,
+            batchSize).subscribe(copy));
+    }
+
+    private static final class ZipCoordinator<R> implements Subscription {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<ZipCoordinator> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(ZipCoordinator.class, "requested");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<ZipCoordinator> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(ZipCoordinator.class, "wip");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<ZipCoordinator, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(ZipCoordinator.class, Throwable.class, "error");
+
+        private final CoreSubscriber<? super R> actual;
+        private final RowCombinator<? extends R> combinator;
+        private final Columns columns;
+        private final ColumnSubscriber[] subscribers;
+        private final int batchSize;
+        // Rows of the current batch which were already combined, only accessed in drain().
+        private int combined;
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        ZipCoordinator(CoreSubscriber<? super R> actual, RowCombinator<? extends R> combinator, int width,
+                       int batchSize) {
+            this.actual = actual;
+            this.combinator = combinator;
+            this.batchSize = batchSize;
+            this.columns = new Columns(width, batchSize);
+            this.subscribers = new ColumnSubscriber[width];
+            for (int i = 0; i < width; i++) {
+                subscribers[i] = new ColumnSubscriber(this, columns.columns[i]);
+            }
+        }
+
+        void subscribe(Publisher<?>[] sources) {
+            actual.onSubscribe(this);
+            for (int i = 0; i < sources.length && !cancelled && error == null; i++) {
+                sources[i].subscribe(subscribers[i]);
+            }
+            // The fused sources are only polled when draining.
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelAll();
+                if (WIP.getAndIncrement(this) == 0) {
+                    columns.clear();
+                }
+            }
+        }
+
+        void onError(Throwable throwable) {
+            if (ERROR.compareAndSet(this, null, throwable)) {
+                drain();
+            } else {
+                Operators.onErrorDropped(throwable, actual.currentContext());
+            }
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested;
+                long emitted = 0;
+                for (;;) {
+                    if (cancelled) {
+                        columns.clear();
+                        return;
+                    }
+                    Throwable throwable = error;
+                    if (throwable != null) {
+                        terminate();
+                        actual.onError(throwable);
+                        return;
+                    }
+
+                    if (!fillFused()) {
+                        continue;
+                    }
+
+                    // Read the done flag before the count, so no item received before completion can be missed.
+                    int available = batchSize;
+                    boolean finished = false;
+                    for (ColumnSubscriber subscriber : subscribers) {
+                        boolean done = subscriber.done;
+                        int count = subscriber.count;
+                        available = Math.min(available, count);
+                        finished |= done && count == combined;
+                    }
+                    if (finished) {
+                        terminate();
+                        actual.onComplete();
+                        return;
+                    }
+                    if (combined == batchSize) {
+                        combined = 0;
+                        for (ColumnSubscriber subscriber : subscribers) {
+                            subscriber.count = 0;
+                        }
+                        for (ColumnSubscriber subscriber : subscribers) {
+                            if (subscriber.queue == null) {
+                                subscriber.upstream.request(batchSize);
+                            }
+                        }
+                        continue;
+                    }
+                    if (combined == available || emitted == r) {
+                        break;
+                    }
+
+                    // The rows up to the available one are complete, so they can be combined without checking the
+                    // sources again.
+                    int row = combined;
+                    while (row != available && emitted != r) {
+                        R value;
+                        try {
+                            value = Objects.requireNonNull(combinator.combine(columns, row),
+                                "The combinator returned a null value");
+                        } catch (Throwable failure) {
+                            Exceptions.throwIfFatal(failure);
+                            terminate();
+                            actual.onError(Operators.onOperatorError(failure, actual.currentContext()));
+                            return;
+                        }
+                        actual.onNext(value);
+                        row++;
+                        emitted++;
+                        if (cancelled) {
+                            columns.clear();
+                            return;
+                        }
+                    }
+                    combined = row;
+                }
+
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -emitted);
+                }
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean fillFused() {
+            for (ColumnSubscriber subscriber : subscribers) {
+                if (subscriber.queue != null && !subscriber.fill()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void terminate() {
+            cancelled = true;
+            cancelAll();
+            columns.clear();
+        }
+
+        private void cancelAll() {
+            for (ColumnSubscriber subscriber : subscribers) {
+                Operators.terminate(ColumnSubscriber.UPSTREAM, subscriber);
+            }
+        }
+
+        Context currentContext() {
+            return actual.currentContext();
+        }
+    }
+
+    private static final class ColumnSubscriber implements CoreSubscriber<Object> {
+        private static final AtomicReferenceFieldUpdater<ColumnSubscriber, Subscription> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(ColumnSubscriber.class, Subscription.class, "upstream");
+        private static final AtomicIntegerFieldUpdater<ColumnSubscriber> COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(ColumnSubscriber.class, "count");
+
+        private final ZipCoordinator<?> parent;
+        private final Object[] column;
+        private volatile Subscription upstream;
+        // Set if the source is synchronous and supports fusion, then the coordinator polls the items itself.
+        private Fuseable.QueueSubscription<Object> queue;
+        // Number of items in the column of the current batch, reset by the coordinator before requesting a new batch.
+        private volatile int count;
+        // Only set on completion, an error is signalled through the coordinator instead.
+        private volatile boolean done;
+        private boolean terminated;
+
+        ColumnSubscriber(ZipCoordinator<?> parent, Object[] column) {
+            this.parent = parent;
+            this.column = column;
+        }
+
+        @Override
+        public Context currentContext() {
+            return parent.currentContext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.setOnce(UPSTREAM, this, subscription)) {
+                if (subscription instanceof Fuseable.QueueSubscription) {
+                    Fuseable.QueueSubscription<Object> queueSubscription =
+                        (Fuseable.QueueSubscription<Object>) subscription;
+                    if (queueSubscription.requestFusion(Fuseable.SYNC) == Fuseable.SYNC) {
+                        queue = queueSubscription;
+                        return;
+                    }
+                }
+                subscription.request(column.length);
+            }
+        }
+
+        // Polls the fused source until the column is full, returns false if polling failed.
+        boolean fill() {
+            int index = count;
+            try {
+                while (index != column.length && !done) {
+                    Object item = queue.poll();
+                    if (item == null) {
+                        done = true;
+                    } else {
+                        column[index++] = item;
+                    }
+                }
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                count = index;
+                parent.onError(Operators.onOperatorError(upstream, throwable, currentContext()));
+                return false;
+            }
+            count = index;
+            return true;
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (terminated) {
+                Operators.onNextDropped(item, currentContext());
+                return;
+            }
+            int index = count;
+            if (index == column.length) {
+                onError(Exceptions.failWithOverflow("More items received than requested"));
+                return;
+            }
+            column[index] = item;
+            COUNT.lazySet(this, index + 1);
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (terminated) {
+                Operators.onErrorDropped(throwable, currentContext());
+                return;
+            }
+            terminated = true;
+            parent.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!terminated) {
+                terminated = true;
+                done = true;
+                parent.drain();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.reactivestreams.Publisher;
+import reactor.core.Exceptions;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Delays the errors of the combined sources, like {@code Flux.mergeDelayError(...)} and
+ * {@code Flux.concatDelayError(...)}, but without keeping every single error until the end.
+ *
+ * Only the first {@code maxErrors} errors are kept, besides the number of errors per exception type, so a long
+ * running merge of thousands of failing sources uses a bounded amount of memory. When all the sources terminated, the
+ * result fails with an {@link AggregatedException}, holding the kept errors as suppressed exceptions.
+ *
+ * Optionally, a circuit breaker fails the result right away with a {@link CircuitOpenException}, and cancels the rest
+ * of the sources, once the ratio of the failed sources among the terminated ones reaches the threshold, so a broken
+ * dependency can't keep the sources failing one after the other.
+ *
+ * Usage: {@code DelayErrors.builder().maxErrors(10).circuitBreaker(0.5, 20).build().merge(sources, 16)}
+ */
+public final class DelayErrors {
+
+    private final int maxErrors;
+    private final double maxErrorRate;
+    private final int minimumSources;
+
+    private DelayErrors(Builder builder) {
+        this.maxErrors = builder.maxErrors;
+        this.maxErrorRate = builder.maxErrorRate;
+        this.minimumSources = builder.minimumSources;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @SafeVarargs
+    public final <T> Flux<T> merge(Publisher<? extends T>... sources) {
+        Objects.requireNonNull(sources, "sources");
+        return merge(Flux.fromArray(sources.clone()), Math.max(1, sources.length));
+    }
+
+    /**
+     * Merges the sources, subscribing to at most {@code concurrency} of them at the same time.
+     */
+    public <T> Flux<T> merge(Publisher<? extends Publisher<? extends T>> sources, int concurrency) {
+        Objects.requireNonNull(sources, "sources");
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency > 0 required but it was " + concurrency);
+        }
+        return Flux.defer(() -> {
+            Reservoir reservoir = new Reservoir();
+            return Flux.from(sources)
+                .flatMap(source -> this.<T>guard(source, reservoir), concurrency, Queues.XS_BUFFER_SIZE)
+                .concatWith(Mono.defer(reservoir::<T>terminate));
+        });
+    }
+
+    @SafeVarargs
+    public final <T> Flux<T> concat(Publisher<? extends T>... sources) {
+        Objects.requireNonNull(sources, "sources");
+        return concat(Flux.fromArray(sources.clone()));
+    }
+
+    /**
+     * Concatenates the sources, subscribing to them one after the other.
+     */
+    public <T> Flux<T> concat(Publisher<? extends Publisher<? extends T>> sources) {
+        Objects.requireNonNull(sources, "sources");
+        return Flux.defer(() -> {
+            Reservoir reservoir = new Reservoir();
+            return Flux.from(sources)
+                .concatMap(source -> this.<T>guard(source, reservoir))
+                .concatWith(Mono.defer(reservoir::<T>terminate));
+        });
+    }
+
+    // Turns the error of the source into a completion, unless it opens the circuit.
+    private <T> Flux<T> guard(Publisher<? extends T> source, Reservoir reservoir) {
+        if (source instanceof Fuseable.ScalarCallable) {
+            // Resolved right away, so the result can still be passed on without subscribing, like flatMap does.
+            try {
+                ((Fuseable.ScalarCallable<?>) source).call();
+            } catch (Throwable error) {
+                Exceptions.throwIfFatal(error);
+                return onError(Exceptions.unwrap(error), reservoir);
+            }
+            reservoir.recordSuccess();
+            return Flux.from(source);
+        }
+        return Flux.<T>from(source)
+            .doOnComplete(reservoir::recordSuccess)
+            .onErrorResume(error -> onError(error, reservoir));
+    }
+
+    private <T> Flux<T> onError(Throwable error, Reservoir reservoir) {
+        CircuitOpenException circuitOpen = reservoir.recordError(error);
+        return circuitOpen == null ? Flux.empty() : Flux.error(circuitOpen);
+    }
+
+    public static final class Builder {
+        private int maxErrors = 16;
+        private double maxErrorRate = 1;
+        private int minimumSources = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * Number of errors kept, the rest are only counted.
+         */
+        public Builder maxErrors(int maxErrors) {
+            if (maxErrors < 0) {
+                throw new IllegalArgumentException("maxErrors >= 0 required but it was " + maxErrors);
+            }
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Opens the circuit once the ratio of the failed sources reaches {@code maxErrorRate}, but only after at least
+         * {@code minimumSources} sources terminated, so the first few errors don't open it on their own.
+         */
+        public Builder circuitBreaker(double maxErrorRate, int minimumSources) {
+            if (!(maxErrorRate > 0 && maxErrorRate <= 1)) {
+                throw new IllegalArgumentException("0 < maxErrorRate <= 1 required but it was " + maxErrorRate);
+            }
+            if (minimumSources <= 0) {
+                throw new IllegalArgumentException("minimumSources > 0 required but it was " + minimumSources);
+            }
+            this.maxErrorRate = maxErrorRate;
+            this.minimumSources = minimumSources;
+            return this;
+        }
+
+        public DelayErrors build() {
+            return new DelayErrors(this);
+        }
+    }
+
+    /**
+     * The errors of the sources: the first few of them as suppressed exceptions, and the number of all of them by
+     * exception type.
+     */
+    public static class AggregatedException extends RuntimeException {
+        private final transient Map<Class<? extends Throwable>, Long> countsByType;
+        private final long errorCount;
+        private final long sourceCount;
+
+        AggregatedException(String message, List<Throwable> errors, Map<Class<? extends Throwable>, Long> countsByType,
+                            long errorCount, long sourceCount) {
+            super(message);
+            errors.forEach(this::addSuppressed);
+            this.countsByType = Collections.unmodifiableMap(countsByType);
+            this.errorCount = errorCount;
+            this.sourceCount = sourceCount;
+        }
+
+        /**
+         * The errors kept, in the order they happened.
+         */
+        public List<Throwable> getErrors() {
+            return Arrays.asList(getSuppressed());
+        }
+
+        public Map<Class<? extends Throwable>, Long> getCountsByType() {
+            return countsByType;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * Number of the sources terminated, either with an error or by completing.
+         */
+        public long getSourceCount() {
+            return sourceCount;
+        }
+    }
+
+    /**
+     * Signals that the ratio of the failed sources reached the threshold, so the rest of the sources were cancelled.
+     */
+    public static final class CircuitOpenException extends AggregatedException {
+        CircuitOpenException(String message, List<Throwable> errors,
+                             Map<Class<? extends Throwable>, Long> countsByType, long errorCount, long sourceCount) {
+            super(message, errors, countsByType, errorCount, sourceCount);
+        }
+    }
+
+    // The errors of one subscription, updated concurrently by the sources.
+    private final class Reservoir {
+        private final List<Throwable> errors = new ArrayList<>();
+        private final Map<Class<? extends Throwable>, Long> countsByType = new LinkedHashMap<>();
+        private long errorCount;
+        private long successCount;
+        private boolean circuitOpen;
+
+        synchronized void recordSuccess() {
+            successCount++;
+        }
+
+        // Returns the exception to fail with right away if the circuit got open, null otherwise.
+        synchronized CircuitOpenException recordError(Throwable error) {
+            errorCount++;
+            countsByType.merge(error.getClass(), 1L, Long::sum);
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+            long sourceCount = errorCount + successCount;
+            if (circuitOpen || sourceCount < minimumSources || errorCount < maxErrorRate * sourceCount) {
+                return null;
+            }
+            circuitOpen = true;
+            return new CircuitOpenException(String.format("Circuit open, %d of %d sources failed: %s", errorCount,
+                sourceCount, describeCounts()), new ArrayList<>(errors), new LinkedHashMap<>(countsByType), errorCount,
+                sourceCount);
+        }
+
+        synchronized <T> Mono<T> terminate() {
+            if (errorCount == 0) {
+                return Mono.empty();
+            }
+            long sourceCount = errorCount + successCount;
+            return Mono.error(new AggregatedException(String.format("%d of %d sources failed: %s", errorCount,
+                sourceCount, describeCounts()), new ArrayList<>(errors), new LinkedHashMap<>(countsByType), errorCount,
+                sourceCount));
+        }
+
+        private String describeCounts() {
+            StringJoiner joiner = new StringJoiner(", ");
+            countsByType.forEach((type, count) -> joiner.add(type.getSimpleName() + "=" + count));
+            return joiner.toString();
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hedged requests: a fallback, like with {@code switchIfEmpty(...)} or {@code onErrorResume(...)}, which doesn't wait
+ * for the primary {@link Mono} to finish, if it takes too long.
+ *
+ * If the primary does not give a value within the hedge delay, the secondary is subscribed to as well, and whichever
+ * gives a value first wins, the other one is cancelled. If the primary fails or is empty, the secondary is subscribed
+ * to right away. The result only fails (or is empty) if both of them failed (or were empty), with the error of the
+ * secondary if it had one.
+ *
+ * The hedge delay is the given percentile of the latency of the primary, recomputed after every {@code window}
+ * requests from the latencies of those requests, so only the slowest few requests are hedged. A primary which lost
+ * the race is recorded with the time it was cancelled at, which is a lower bound of its latency, so the slow requests
+ * don't disappear from the distribution because they were hedged.
+ *
+ * Usage: {@code findShipById(id).transform(hedge.withFallback(findShipInArchiveById(id)))}
+ */
+public final class Hedge {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final double percentile;
+    private final int window;
+    private final Scheduler scheduler;
+
+    private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+    private final AtomicLong samples = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private Histogram recycled;
+    private volatile long hedgeDelayNanos;
+
+    private Hedge(Builder builder) {
+        this.percentile = builder.percentile;
+        this.window = builder.window;
+        this.scheduler = builder.scheduler == null ? Schedulers.parallel() : builder.scheduler;
+        this.hedgeDelayNanos = builder.initialDelay.toNanos();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> withFallback(Mono<? extends T> secondary) {
+        Objects.requireNonNull(secondary, "secondary");
+        return primary -> Mono.create(sink -> new Race<T>(primary, secondary, sink).start());
+    }
+
+    /**
+     * The current hedge delay.
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Number of requests where the secondary was subscribed to, because the primary was too slow.
+     */
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    private void record(long latencyNanos) {
+        latencies.recordValue(Math.max(0, latencyNanos));
+        if (samples.incrementAndGet() % window == 0) {
+            recomputeHedgeDelay();
+        }
+    }
+
+    private synchronized void recomputeHedgeDelay() {
+        recycled = latencies.getIntervalHistogram(recycled);
+        hedgeDelayNanos = recycled.getValueAtPercentile(percentile);
+    }
+
+    public static final class Builder {
+        private double percentile = 95;
+        private Duration initialDelay = Duration.ofMillis(100);
+        private int window = 100;
+        private Scheduler scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * The percentile of the latency of the primary, used as the hedge delay, 95 by default.
+         */
+        public Builder percentile(double percentile) {
+            if (!(percentile > 0 && percentile < 100)) {
+                throw new IllegalArgumentException("0 < percentile < 100 required but it was " + percentile);
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * The hedge delay used until the first window of requests is completed, 100 ms by default.
+         */
+        public Builder initialDelay(Duration initialDelay) {
+            Objects.requireNonNull(initialDelay, "initialDelay");
+            if (initialDelay.isNegative()) {
+                throw new IllegalArgumentException("initialDelay >= 0 required but it was " + initialDelay);
+            }
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Number of requests the hedge delay is computed from, 100 by default.
+         */
+        public Builder window(int window) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("window > 0 required but it was " + window);
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * The Scheduler of the hedge delay, and providing the time, {@code Schedulers.parallel()} by default.
+         */
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        public Hedge build() {
+            return new Hedge(this);
+        }
+    }
+
+    // One request: the primary and the secondary racing for the sink.
+    private final class Race<T> {
+        private final Mono<? extends T> primary;
+        private final Mono<? extends T> secondary;
+        private final MonoSink<T> sink;
+        private final Disposable.Composite disposables = Disposables.composite();
+        private final long startNanos = scheduler.now(TimeUnit.NANOSECONDS);
+
+        private boolean done;
+        private boolean primaryTerminated;
+        private boolean secondaryStarted;
+        private boolean secondaryTerminated;
+        private Throwable primaryError;
+        private Throwable secondaryError;
+
+        Race(Mono<? extends T> primary, Mono<? extends T> secondary, MonoSink<T> sink) {
+            this.primary = primary;
+            this.secondary = secondary;
+            this.sink = sink;
+        }
+
+        void start() {
+            requests.increment();
+            sink.onDispose(disposables);
+            disposables.add(scheduler.schedule(this::hedge, hedgeDelayNanos, TimeUnit.NANOSECONDS));
+            disposables.add(primary.subscribe(this::onValue, error -> onEmpty(error, true),
+                () -> onEmpty(null, true)));
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (done || secondaryStarted) {
+                    return;
+                }
+                secondaryStarted = true;
+            }
+            hedged.increment();
+            subscribeSecondary();
+        }
+
+        private void subscribeSecondary() {
+            disposables.add(secondary.subscribe(this::onValue, error -> onEmpty(error, false),
+                () -> onEmpty(null, false)));
+        }
+
+        private void onValue(T value) {
+            boolean primaryRunning;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                primaryRunning = !primaryTerminated;
+            }
+            // If the secondary won, the primary is recorded with a lower bound of its latency.
+            if (primaryRunning) {
+                record(scheduler.now(TimeUnit.NANOSECONDS) - startNanos);
+            }
+            sink.success(value);
+        }
+
+        // Called for an error, or a completion without a value.
+        private void onEmpty(Throwable error, boolean fromPrimary) {
+            boolean fallback = false;
+            boolean finished = false;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (fromPrimary) {
+                    primaryTerminated = true;
+                    primaryError = error;
+                    if (!secondaryStarted) {
+                        secondaryStarted = true;
+                        fallback = true;
+                    }
+                } else {
+                    secondaryTerminated = true;
+                    secondaryError = error;
+                }
+                if (primaryTerminated && secondaryTerminated) {
+                    done = true;
+                    finished = true;
+                }
+            }
+            if (fallback) {
+                subscribeSecondary();
+            } else if (finished) {
+                Throwable result = secondaryError != null ? secondaryError : primaryError;
+                if (result == null) {
+                    sink.success();
+                } else {
+                    sink.error(result);
+                }
+            }
+        }
+    }
+
+}
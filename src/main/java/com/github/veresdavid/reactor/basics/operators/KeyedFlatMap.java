@@ -0,0 +1,63 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A flatMap in between {@code flatMap}, which keeps no order at all, and {@code flatMapSequential}, which keeps the
+ * order of all the items: the items with the same key stay in order, while the items of different keys are mapped in
+ * parallel.
+ *
+ * The keys are striped across a fixed number of lanes by their hash code. Each lane maps its items one after the
+ * other, like concatMap, on its own worker of the {@link Scheduler}, so the items of a key are processed and passed
+ * on in their original order, and the lanes use as many cores as the Scheduler has. As the number of lanes is fixed,
+ * any number of keys can be used, but keys sharing a lane also wait for each other.
+ *
+ * Usage: {@code events.transform(KeyedFlatMap.flatMap(Event::getAccountId, this::process))}
+ */
+public final class KeyedFlatMap {
+
+    private KeyedFlatMap() {
+    }
+
+    public static <T, K, R> Function<Flux<T>, Flux<R>> flatMap(
+        Function<? super T, ? extends K> keySelector,
+        Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flatMap(Schedulers.DEFAULT_POOL_SIZE, Schedulers.parallel(), keySelector, mapper);
+    }
+
+    /**
+     * Same as {@link #flatMap(Function, Function)}, but with the given number of lanes, running on the given
+     * {@link Scheduler}.
+     */
+    public static <T, K, R> Function<Flux<T>, Flux<R>> flatMap(
+        int lanes, Scheduler scheduler, Function<? super T, ? extends K> keySelector,
+        Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        if (lanes <= 0) {
+            throw new IllegalArgumentException("lanes > 0 required but it was " + lanes);
+        }
+        Objects.requireNonNull(scheduler, "scheduler");
+        Objects.requireNonNull(keySelector, "keySelector");
+        Objects.requireNonNull(mapper, "mapper");
+
+        // Every lane is subscribed at the same time, so groupBy never waits for a lane which is not consumed.
+        return flux -> flux
+            .groupBy(item -> lane(keySelector.apply(item), lanes), Queues.SMALL_BUFFER_SIZE)
+            .flatMap(lane -> lane
+                .publishOn(scheduler, Queues.SMALL_BUFFER_SIZE)
+                .concatMap(mapper), lanes);
+    }
+
+    private static int lane(Object key, int lanes) {
+        int hash = Objects.hashCode(key);
+        // Spreads the higher bits, as the hash codes of similar keys often only differ in those.
+        return Math.floorMod(hash ^ (hash >>> 16), lanes);
+    }
+
+}
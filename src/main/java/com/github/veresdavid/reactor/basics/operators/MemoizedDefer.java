@@ -0,0 +1,193 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Like {@code Mono.defer(...)}, but the value of the supplied {@link Mono} is kept for a TTL, instead of calling the
+ * supplier for every subscription. Useful for values which are expensive to get, but change rarely, like a
+ * configuration or an access token.
+ *
+ * There is at most one computation in flight: concurrent subscribers share it. Once the value is about to expire
+ * (less than {@code refreshAhead} is left of the TTL), the next subscriber gets the cached value right away, and
+ * triggers a refresh in the background, so as long as the value is used regularly, subscribers never wait for the
+ * computation.
+ *
+ * A failed or empty computation is not cached, the next subscriber triggers a new one. If it fails after the value
+ * expired, the subscribers get the stale value instead of the error, for at most {@code maxStale} after the expiry.
+ *
+ * Usage: {@code MemoizedDefer.builder(this::fetchToken).ttl(Duration.ofMinutes(10)).refreshAhead(Duration.ofMinutes(1))
+ * .build().get()}
+ */
+public final class MemoizedDefer<T> {
+
+    private final Supplier<? extends Mono<? extends T>> supplier;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long maxStaleNanos;
+    private final Scheduler scheduler;
+
+    private final AtomicReference<Sinks.One<T>> inFlight = new AtomicReference<>();
+    private volatile Entry<T> entry;
+
+    private MemoizedDefer(Builder<T> builder) {
+        this.supplier = builder.supplier;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.refreshAheadNanos = builder.refreshAhead.toNanos();
+        this.maxStaleNanos = builder.maxStale == null ? ttlNanos : builder.maxStale.toNanos();
+        this.scheduler = builder.scheduler == null ? Schedulers.boundedElastic() : builder.scheduler;
+    }
+
+    public static <T> Builder<T> builder(Supplier<? extends Mono<? extends T>> supplier) {
+        return new Builder<>(supplier);
+    }
+
+    /**
+     * Returns a {@link Mono} of the value. The cache is only checked upon subscription.
+     */
+    public Mono<T> get() {
+        return Mono.defer(() -> {
+            Entry<T> current = entry;
+            long now = scheduler.now(TimeUnit.NANOSECONDS);
+            if (current != null && now - current.loadedNanos < ttlNanos) {
+                if (now - current.loadedNanos >= ttlNanos - refreshAheadNanos) {
+                    compute(true);
+                }
+                return Mono.just(current.value);
+            }
+            return compute(false).onErrorResume(error -> stale(error, current));
+        });
+    }
+
+    /**
+     * Drops the cached value, so the next subscriber triggers a new computation. A computation already in flight is
+     * not affected.
+     */
+    public void invalidate() {
+        entry = null;
+    }
+
+    // Starts a new computation, or joins the one in flight.
+    private Mono<T> compute(boolean background) {
+        for (;;) {
+            Sinks.One<T> current = inFlight.get();
+            if (current != null) {
+                return current.asMono();
+            }
+            Sinks.One<T> sink = Sinks.one();
+            if (inFlight.compareAndSet(null, sink)) {
+                Mono<? extends T> source = Mono.defer(supplier);
+                // In the background, a blocking supplier must not block the subscriber who triggered the refresh.
+                (background ? source.subscribeOn(scheduler) : source).subscribe(
+                    value -> {
+                        entry = new Entry<>(value, scheduler.now(TimeUnit.NANOSECONDS));
+                        inFlight.compareAndSet(sink, null);
+                        sink.tryEmitValue(value);
+                    },
+                    error -> {
+                        inFlight.compareAndSet(sink, null);
+                        sink.tryEmitError(error);
+                    },
+                    () -> {
+                        // Only does something if the supplied Mono was empty.
+                        inFlight.compareAndSet(sink, null);
+                        sink.tryEmitEmpty();
+                    }
+                );
+                return sink.asMono();
+            }
+        }
+    }
+
+    private Mono<T> stale(Throwable error, Entry<T> expired) {
+        if (expired == null
+            || scheduler.now(TimeUnit.NANOSECONDS) - expired.loadedNanos >= ttlNanos + maxStaleNanos) {
+            return Mono.error(error);
+        }
+        return Mono.just(expired.value);
+    }
+
+    public static final class Builder<T> {
+        private final Supplier<? extends Mono<? extends T>> supplier;
+        private Duration ttl;
+        private Duration refreshAhead = Duration.ZERO;
+        private Duration maxStale;
+        private Scheduler scheduler;
+
+        private Builder(Supplier<? extends Mono<? extends T>> supplier) {
+            this.supplier = Objects.requireNonNull(supplier, "supplier");
+        }
+
+        public Builder<T> ttl(Duration ttl) {
+            Objects.requireNonNull(ttl, "ttl");
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("ttl > 0 required but it was " + ttl);
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * How long before the expiry the value is refreshed in the background, zero (no refresh-ahead) by default.
+         */
+        public Builder<T> refreshAhead(Duration refreshAhead) {
+            Objects.requireNonNull(refreshAhead, "refreshAhead");
+            if (refreshAhead.isNegative()) {
+                throw new IllegalArgumentException("refreshAhead >= 0 required but it was " + refreshAhead);
+            }
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * How long after the expiry the stale value is served if the computation fails, the same as the TTL by
+         * default.
+         */
+        public Builder<T> maxStale(Duration maxStale) {
+            Objects.requireNonNull(maxStale, "maxStale");
+            if (maxStale.isNegative()) {
+                throw new IllegalArgumentException("maxStale >= 0 required but it was " + maxStale);
+            }
+            this.maxStale = maxStale;
+            return this;
+        }
+
+        /**
+         * The Scheduler running the background refreshes, and providing the time, {@code Schedulers.boundedElastic()}
+         * by default.
+         */
+        public Builder<T> scheduler(Scheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+            return this;
+        }
+
+        public MemoizedDefer<T> build() {
+            if (ttl == null) {
+                throw new IllegalStateException("ttl is required");
+            }
+            if (refreshAhead.compareTo(ttl) >= 0) {
+                throw new IllegalArgumentException("refreshAhead < ttl required but it was " + refreshAhead);
+            }
+            return new MemoizedDefer<>(this);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long loadedNanos;
+
+        Entry(T value, long loadedNanos) {
+            this.value = value;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+
+}
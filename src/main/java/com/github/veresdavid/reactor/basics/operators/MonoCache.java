@@ -0,0 +1,110 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A cache in front of a {@link Mono} returning lookup, like {@code findShipById}.
+ *
+ * There is at most one load in flight per key: concurrent subscribers for the same key share the result of the same
+ * {@link Mono}, instead of subscribing to the loader again. The entries are kept in a Caffeine cache, so eviction by
+ * size follows its W-TinyLFU policy, and it can also expire entries after a TTL.
+ *
+ * Empty results are not cached by default, so the next subscriber for the key triggers a new load. Failed loads are
+ * never cached.
+ */
+public final class MonoCache<K, V> {
+
+    private final Function<? super K, ? extends Mono<V>> loader;
+    private final boolean cacheEmpty;
+    private final AsyncCache<K, Optional<V>> cache;
+
+    private MonoCache(Builder<K, V> builder) {
+        this.loader = builder.loader;
+        this.cacheEmpty = builder.cacheEmpty;
+
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+            .recordStats();
+        if (builder.maximumSize >= 0) {
+            caffeine.maximumSize(builder.maximumSize);
+        }
+        if (builder.expireAfterWrite != null) {
+            caffeine.expireAfterWrite(builder.expireAfterWrite);
+        }
+        this.cache = caffeine.buildAsync();
+    }
+
+    public static <K, V> Builder<K, V> builder(Function<? super K, ? extends Mono<V>> loader) {
+        return new Builder<>(loader);
+    }
+
+    /**
+     * Returns a {@link Mono} of the value for the key. The cache is only checked upon subscription.
+     */
+    public Mono<V> get(K key) {
+        Objects.requireNonNull(key, "key");
+        return Mono.defer(() -> Mono.fromFuture(cache.get(key, (k, executor) -> load(k))))
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    /**
+     * Returns the hit, miss and load statistics of the cache.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    // A null value means that Caffeine won't keep the entry, which is what we want for not cached empty results.
+    private CompletableFuture<Optional<V>> load(K key) {
+        return loader.apply(key)
+            .map(Optional::of)
+            .switchIfEmpty(Mono.fromSupplier(() -> cacheEmpty ? Optional.empty() : null))
+            .toFuture();
+    }
+
+    public static final class Builder<K, V> {
+        private final Function<? super K, ? extends Mono<V>> loader;
+        private long maximumSize = -1;
+        private Duration expireAfterWrite;
+        private boolean cacheEmpty;
+
+        private Builder(Function<? super K, ? extends Mono<V>> loader) {
+            this.loader = Objects.requireNonNull(loader, "loader");
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("maximumSize >= 0 required but it was " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = Objects.requireNonNull(expireAfterWrite, "expireAfterWrite");
+            return this;
+        }
+
+        public Builder<K, V> cacheEmpty(boolean cacheEmpty) {
+            this.cacheEmpty = cacheEmpty;
+            return this;
+        }
+
+        public MonoCache<K, V> build() {
+            return new MonoCache<>(this);
+        }
+    }
+
+}
@@ -0,0 +1,626 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * An ordered flatMap, like {@code flux.flatMapSequential(this::findShipById)}, but with a hard limit on the number of
+ * items held back while waiting for a slower inner source.
+ *
+ * Only the inner source at the head, whose items are passed on right away, is requested freely. The inner sources
+ * behind it share a budget of {@code maxBufferedItems}, and they are only requested as many items as the budget
+ * allows. When the budget is used up, no more items are requested from the upstream either, until the head completes
+ * and the next inner source takes its place, releasing its part of the budget.
+ *
+ * Optionally, each inner source has to complete within a timeout, otherwise the result fails with a
+ * {@link TimeoutException}. The timeout starts when the inner source is first requested or becomes the head, so the
+ * time it spends waiting behind the head without being requested doesn't count. The time an inner source spends ready
+ * (with items or completed) but waiting behind the head is recorded as the head-of-line blocking time, see
+ * {@link #headOfLineBlocking()}.
+ *
+ * Usage: {@code ids.transform(orderedFlatMap.flatMap(this::findShipById))}
+ */
+public final class OrderedFlatMap {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final int maxConcurrency;
+    private final int maxBufferedItems;
+    private final int prefetch;
+    private final Duration innerTimeout;
+    private final Scheduler timeoutScheduler;
+
+    private final Recorder headOfLineBlocking = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram headOfLineBlockingTotal = new Histogram(SIGNIFICANT_DIGITS);
+
+    private OrderedFlatMap(Builder builder) {
+        this.maxConcurrency = builder.maxConcurrency;
+        this.maxBufferedItems = builder.maxBufferedItems;
+        this.prefetch = builder.prefetch;
+        this.innerTimeout = builder.innerTimeout;
+        this.timeoutScheduler = builder.timeoutScheduler;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Maps each item of a {@link Flux} to an inner source, and passes on their items in the order of the upstream
+     * items.
+     */
+    public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return flux -> Flux.from(actual -> flux.subscribe(
+            new OrderedFlatMapSubscriber<T, R>(Operators.toCoreSubscriber(actual), mapper, this)));
+    }
+
+    /**
+     * Nanoseconds the inner sources spent ready, but waiting for the inner sources before them to complete, recorded
+     * once for each inner source which had to wait, since the creation of this instance.
+     */
+    public synchronized Histogram headOfLineBlocking() {
+        headOfLineBlockingTotal.add(headOfLineBlocking.getIntervalHistogram());
+        return headOfLineBlockingTotal.copy();
+    }
+
+    public static final class Builder {
+        private int maxConcurrency = Queues.XS_BUFFER_SIZE;
+        private int maxBufferedItems = Queues.SMALL_BUFFER_SIZE;
+        private int prefetch = Queues.XS_BUFFER_SIZE;
+        private Duration innerTimeout;
+        private Scheduler timeoutScheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * Maximum number of inner sources subscribed at the same time.
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Maximum number of items requested from the inner sources behind the head, in other words, the size of the
+         * reorder buffer.
+         */
+        public Builder maxBufferedItems(int maxBufferedItems) {
+            if (maxBufferedItems < 0) {
+                throw new IllegalArgumentException("maxBufferedItems >= 0 required but it was " + maxBufferedItems);
+            }
+            this.maxBufferedItems = maxBufferedItems;
+            return this;
+        }
+
+        /**
+         * Maximum number of items requested from one inner source at once.
+         */
+        public Builder prefetch(int prefetch) {
+            if (prefetch <= 0) {
+                throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+            }
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        public Builder innerTimeout(Duration innerTimeout) {
+            return innerTimeout(innerTimeout, Schedulers.parallel());
+        }
+
+        /**
+         * Time each inner source has to complete in, measured with the given {@link Scheduler} from the moment it is
+         * first requested or becomes the head.
+         */
+        public Builder innerTimeout(Duration innerTimeout, Scheduler timeoutScheduler) {
+            Objects.requireNonNull(innerTimeout, "innerTimeout");
+            if (innerTimeout.isNegative() || innerTimeout.isZero()) {
+                throw new IllegalArgumentException("innerTimeout > 0 required but it was " + innerTimeout);
+            }
+            this.innerTimeout = innerTimeout;
+            this.timeoutScheduler = Objects.requireNonNull(timeoutScheduler, "timeoutScheduler");
+            return this;
+        }
+
+        public OrderedFlatMap build() {
+            return new OrderedFlatMap(this);
+        }
+    }
+
+    private static final class OrderedFlatMapSubscriber<T, R> implements CoreSubscriber<T>, Subscription {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<OrderedFlatMapSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(OrderedFlatMapSubscriber.class, "requested");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<OrderedFlatMapSubscriber> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(OrderedFlatMapSubscriber.class, "wip");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<OrderedFlatMapSubscriber, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(OrderedFlatMapSubscriber.class, Throwable.class, "error");
+
+        private final CoreSubscriber<? super R> actual;
+        private final Function<? super T, ? extends Publisher<? extends R>> mapper;
+        private final OrderedFlatMap parent;
+        private final int upstreamLimit;
+        // The inner sources created by onNext, waiting to be taken over by drain().
+        private final Queue<InnerSubscriber<R>> arrivals;
+
+        private Subscription upstream;
+        private volatile boolean done;
+        // Set when an inner source got subscribed, so it can be requested.
+        private volatile boolean innerSubscribed;
+
+        // Only accessed in drain().
+        private final ArrayDeque<InnerSubscriber<R>> active = new ArrayDeque<>();
+        private long upstreamRequested;
+        private long upstreamTaken;
+        // Items requested, but not yet passed on, by the inner sources behind the head.
+        private int buffered;
+        private boolean grantPending;
+
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        OrderedFlatMapSubscriber(CoreSubscriber<? super R> actual,
+                                 Function<? super T, ? extends Publisher<? extends R>> mapper, OrderedFlatMap parent) {
+            this.actual = actual;
+            this.mapper = mapper;
+            this.parent = parent;
+            this.upstreamLimit = parent.maxConcurrency - (parent.maxConcurrency >> 2);
+            this.arrivals = Queues.<InnerSubscriber<R>>get(parent.maxConcurrency).get();
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                actual.onSubscribe(this);
+                drain();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(T item) {
+            if (done) {
+                Operators.onNextDropped(item, currentContext());
+                return;
+            }
+            Publisher<? extends R> source;
+            R scalar = null;
+            try {
+                source = Objects.requireNonNull(mapper.apply(item), "The mapper returned a null Publisher");
+                if (source instanceof Fuseable.ScalarCallable) {
+                    scalar = ((Fuseable.ScalarCallable<R>) source).call();
+                }
+            } catch (Throwable throwable) {
+                Exceptions.throwIfFatal(throwable);
+                onError(Operators.onOperatorError(upstream, throwable, item, currentContext()));
+                return;
+            }
+
+            if (source instanceof Fuseable.ScalarCallable) {
+                onScalar(scalar);
+                return;
+            }
+            InnerSubscriber<R> inner = new InnerSubscriber<>(this, source instanceof Mono ? 1 : parent.prefetch);
+            if (!offer(inner, item)) {
+                return;
+            }
+            source.subscribe(inner);
+            drain();
+        }
+
+        // A scalar source is passed on right away if nothing is waiting before it, otherwise it is queued as an
+        // already completed inner source.
+        private void onScalar(R value) {
+            if (WIP.compareAndSet(this, 0, 1)) {
+                if (arrivals.isEmpty() && active.isEmpty() && (value == null || requested != 0)) {
+                    upstreamTaken++;
+                    if (value != null) {
+                        actual.onNext(value);
+                        if (requested != Long.MAX_VALUE) {
+                            REQUESTED.decrementAndGet(this);
+                        }
+                    }
+                } else {
+                    // Still draining, so the drain() calls made meanwhile are not lost.
+                    offer(completed(value), value);
+                }
+                drainLoop();
+                return;
+            }
+            InnerSubscriber<R> inner = completed(value);
+            if (offer(inner, value)) {
+                drain();
+            }
+        }
+
+        private InnerSubscriber<R> completed(R value) {
+            InnerSubscriber<R> inner = new InnerSubscriber<>(this, 1);
+            inner.complete(value);
+            return inner;
+        }
+
+        private boolean offer(InnerSubscriber<R> inner, Object item) {
+            if (!arrivals.offer(inner)) {
+                onError(Operators.onOperatorError(upstream, Exceptions.failWithOverflow(
+                    Exceptions.BACKPRESSURE_ERROR_QUEUE_FULL), item, currentContext()));
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                Operators.onErrorDropped(throwable, currentContext());
+                return;
+            }
+            done = true;
+            innerError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                if (WIP.getAndIncrement(this) == 0) {
+                    cancelInners();
+                }
+            }
+        }
+
+        void innerError(Throwable throwable) {
+            if (ERROR.compareAndSet(this, null, throwable)) {
+                drain();
+            } else {
+                Operators.onErrorDropped(throwable, currentContext());
+            }
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            long upstreamRequest = 0;
+            for (;;) {
+                long r = requested;
+                long emitted = 0;
+                for (;;) {
+                    if (cancelled) {
+                        cancelInners();
+                        return;
+                    }
+                    Throwable throwable = error;
+                    if (throwable != null) {
+                        upstream.cancel();
+                        cancelInners();
+                        actual.onError(throwable);
+                        return;
+                    }
+
+                    boolean upstreamDone = done;
+                    InnerSubscriber<R> arrived;
+                    while ((arrived = arrivals.poll()) != null) {
+                        upstreamTaken++;
+                        active.offerLast(arrived);
+                        if (active.size() == 1) {
+                            arrived.head = true;
+                            startTimeout(arrived);
+                        } else {
+                            // A scalar source arrives with its item already in the buffer.
+                            buffered += arrived.requested;
+                            grantPending = true;
+                        }
+                    }
+
+                    InnerSubscriber<R> head = active.peekFirst();
+                    if (head == null) {
+                        if (upstreamDone && arrivals.isEmpty()) {
+                            actual.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+
+                    boolean headDone = head.done;
+                    R item = emitted == r ? null : head.queue.poll();
+                    if (item != null) {
+                        actual.onNext(item);
+                        emitted++;
+                        head.emitted++;
+                        continue;
+                    }
+                    if (headDone && head.queue.isEmpty()) {
+                        active.pollFirst();
+                        head.disposeTimeout();
+                        InnerSubscriber<R> next = active.peekFirst();
+                        if (next != null) {
+                            promote(next);
+                        }
+                        continue;
+                    }
+                    break;
+                }
+
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -emitted);
+                }
+                upstreamRequest += requestMore();
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+            // Requested after leaving the loop, so a synchronous upstream can take the scalar fast path.
+            if (upstreamRequest != 0) {
+                upstream.request(upstreamRequest);
+            }
+        }
+
+        // Turns the inner source into the head, so its items are not counted in the buffer anymore.
+        private void promote(InnerSubscriber<R> inner) {
+            buffered -= inner.requested - inner.emitted;
+            grantPending = true;
+            inner.head = true;
+            startTimeout(inner);
+            long readyNanos = inner.readyNanos;
+            if (readyNanos != 0) {
+                parent.headOfLineBlocking.recordValue(Math.max(0, System.nanoTime() - readyNanos));
+            }
+        }
+
+        // Requests the head freely, the rest of the inner sources only within the buffer limit, and returns the number
+        // of items to request from the upstream.
+        private long requestMore() {
+            InnerSubscriber<R> head = active.peekFirst();
+            if (head != null) {
+                request(head, head.capacity - (int) (head.requested - head.emitted));
+            }
+
+            // The inner sources behind the head only need more items when the buffer got space, or they are new.
+            if (innerSubscribed) {
+                innerSubscribed = false;
+                grantPending = true;
+            }
+            if (grantPending && buffered < parent.maxBufferedItems && active.size() > 1) {
+                grantPending = false;
+                Iterator<InnerSubscriber<R>> iterator = active.iterator();
+                iterator.next();
+                while (iterator.hasNext() && buffered < parent.maxBufferedItems) {
+                    InnerSubscriber<R> inner = iterator.next();
+                    int n = Math.min(inner.capacity - (int) (inner.requested - inner.emitted),
+                        parent.maxBufferedItems - buffered);
+                    buffered += request(inner, n);
+                }
+            }
+
+            if (!done && buffered < parent.maxBufferedItems) {
+                long inFlight = upstreamRequested - upstreamTaken;
+                long n = parent.maxConcurrency - active.size() - inFlight;
+                // Requested in batches, unless nothing is on its way.
+                if (n >= upstreamLimit || (n > 0 && inFlight == 0)) {
+                    upstreamRequested += n;
+                    return n;
+                }
+            }
+            return 0;
+        }
+
+        // Requests the inner source if it needs at least half of its capacity, returns the number of items requested.
+        private int request(InnerSubscriber<R> inner, int n) {
+            Subscription subscription = inner.upstream;
+            if (inner.done || subscription == null || n <= 0 || n < (inner.capacity + 1) >> 1) {
+                return 0;
+            }
+            startTimeout(inner);
+            inner.requested += n;
+            subscription.request(n);
+            return n;
+        }
+
+        // Starts the timeout of the inner source once, before it is requested, so a synchronous source can cancel it.
+        private void startTimeout(InnerSubscriber<R> inner) {
+            if (parent.innerTimeout == null || inner.timeoutStarted) {
+                return;
+            }
+            inner.timeoutStarted = true;
+            if (inner.terminated == 0) {
+                inner.timeout = parent.timeoutScheduler.schedule(inner::onTimeout, parent.innerTimeout.toNanos(),
+                    TimeUnit.NANOSECONDS);
+                // The inner source may have terminated before it could see the timeout.
+                if (inner.terminated != 0) {
+                    inner.disposeTimeout();
+                }
+            }
+        }
+
+        private void cancelInners() {
+            InnerSubscriber<R> inner;
+            while ((inner = active.pollFirst()) != null) {
+                inner.cancel();
+            }
+            while ((inner = arrivals.poll()) != null) {
+                inner.cancel();
+            }
+        }
+    }
+
+    private static final class InnerSubscriber<R> implements CoreSubscriber<R> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<InnerSubscriber, Subscription> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(InnerSubscriber.class, Subscription.class, "upstream");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<InnerSubscriber> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(InnerSubscriber.class, "terminated");
+
+        private final OrderedFlatMapSubscriber<?, R> parent;
+        private final int capacity;
+        private final Queue<R> queue;
+        private volatile Subscription upstream;
+        private volatile int terminated;
+        private volatile boolean done;
+        private volatile Disposable timeout;
+        // Time of the first item or the completion while waiting behind the head, 0 if it was not ready then.
+        private volatile long readyNanos;
+        // Only set in drain(), but also read when the source gets ready.
+        private volatile boolean head;
+
+        // Only accessed in drain().
+        private long requested;
+        private long emitted;
+        private boolean timeoutStarted;
+
+        InnerSubscriber(OrderedFlatMapSubscriber<?, R> parent, int capacity) {
+            this.parent = parent;
+            this.capacity = capacity;
+            this.queue = capacity == 1 ? Queues.<R>one().get() : Queues.<R>get(capacity).get();
+        }
+
+        @Override
+        public Context currentContext() {
+            return parent.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            // Requested by the drain loop only, once it knows whether this is the head.
+            if (Operators.setOnce(UPSTREAM, this, subscription)) {
+                parent.innerSubscribed = true;
+                parent.drain();
+            }
+        }
+
+        @Override
+        public void onNext(R item) {
+            if (terminated != 0) {
+                Operators.onNextDropped(item, currentContext());
+                return;
+            }
+            if (!queue.offer(item)) {
+                onError(Operators.onOperatorError(upstream, Exceptions.failWithOverflow(
+                    Exceptions.BACKPRESSURE_ERROR_QUEUE_FULL), item, currentContext()));
+                return;
+            }
+            markReady();
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                disposeTimeout();
+                parent.innerError(throwable);
+            } else {
+                Operators.onErrorDropped(throwable, currentContext());
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                disposeTimeout();
+                markReady();
+                done = true;
+                parent.drain();
+            }
+        }
+
+        // Completes the inner source of a scalar source without subscribing to anything, before it is queued.
+        void complete(R value) {
+            terminated = 1;
+            if (value != null) {
+                queue.offer(value);
+                requested = 1;
+            }
+            markReady();
+            done = true;
+        }
+
+        void onTimeout() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                Operators.terminate(UPSTREAM, this);
+                parent.innerError(new TimeoutException("The inner source did not complete within "
+                    + parent.parent.innerTimeout.toMillis() + "ms"));
+            }
+        }
+
+        void cancel() {
+            disposeTimeout();
+            Operators.terminate(UPSTREAM, this);
+            queue.clear();
+        }
+
+        void disposeTimeout() {
+            Disposable task = timeout;
+            if (task != null) {
+                task.dispose();
+            }
+        }
+
+        private void markReady() {
+            if (!head && readyNanos == 0) {
+                readyNanos = System.nanoTime();
+            }
+        }
+    }
+
+}
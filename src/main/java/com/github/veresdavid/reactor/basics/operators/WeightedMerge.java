@@ -0,0 +1,382 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A merge, which decides the order of the items by the priority and the weight of their sources, instead of taking
+ * them in whatever order they arrive, like {@code Flux.merge(...)} does.
+ *
+ * Each source has a bounded queue, and it is only requested as many items as its queue can hold, so the backpressure
+ * of each source is kept. Whenever there is demand, the next item is taken from the sources with the highest priority
+ * which have any items queued, so a control channel with a high priority never waits behind the items of bulk sources
+ * with a lower priority. Among the sources with the same priority, the items are taken with weighted-fair queuing: a
+ * source with twice the weight gets twice as many items taken, as long as it has items queued.
+ *
+ * Usage: {@code WeightedMerge.<Order>builder().source(control, 1, 1).source(bulk, 0, 3).source(batch, 0, 1).build()}
+ */
+public final class WeightedMerge {
+
+    // The virtual time it takes to serve an item of a source with a weight of 1. It is divisible by all the weights
+    // up to 16, so their shares are exact.
+    private static final long TIME_UNIT = 720_720;
+    private static final int MAX_WEIGHT = (int) TIME_UNIT;
+
+    private WeightedMerge() {
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static final class Builder<T> {
+        private final List<SourceSpec<T>> sources = new ArrayList<>();
+        private int prefetch = Queues.XS_BUFFER_SIZE;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a source with the default priority of 0.
+         */
+        public Builder<T> source(Publisher<? extends T> source, int weight) {
+            return source(source, 0, weight);
+        }
+
+        /**
+         * Adds a source, where a higher priority means that its items are taken first, and the weight decides the
+         * share of the source among the sources with the same priority.
+         */
+        public Builder<T> source(Publisher<? extends T> source, int priority, int weight) {
+            Objects.requireNonNull(source, "source");
+            if (weight <= 0 || weight > MAX_WEIGHT) {
+                throw new IllegalArgumentException("0 < weight <= " + MAX_WEIGHT + " required but it was " + weight);
+            }
+            sources.add(new SourceSpec<>(source, priority, weight));
+            return this;
+        }
+
+        /**
+         * Size of the queue of each source, which is also the number of items requested from a source at most.
+         */
+        public Builder<T> prefetch(int prefetch) {
+            if (prefetch <= 0) {
+                throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+            }
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        public Flux<T> build() {
+            if (sources.isEmpty()) {
+                return Flux.empty();
+            }
+            List<SourceSpec<T>> specs = new ArrayList<>(sources);
+            // Sorted by priority, so the sources of the same priority are next to each other.
+            specs.sort(Comparator.comparingInt((SourceSpec<T> spec) -> spec.priority).reversed());
+            int queueSize = prefetch;
+            return Flux.from(actual -> new MergeCoordinator<>(Operators.toCoreSubscriber(actual), specs, queueSize)
+                .subscribe(specs));
+        }
+    }
+
+    private static final class SourceSpec<T> {
+        private final Publisher<? extends T> source;
+        private final int priority;
+        private final int weight;
+
+        SourceSpec(Publisher<? extends T> source, int priority, int weight) {
+            this.source = source;
+            this.priority = priority;
+            this.weight = weight;
+        }
+    }
+
+    private static final class MergeCoordinator<T> implements Subscription {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<MergeCoordinator> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(MergeCoordinator.class, "requested");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<MergeCoordinator> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(MergeCoordinator.class, "wip");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<MergeCoordinator, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(MergeCoordinator.class, Throwable.class, "error");
+
+        private final CoreSubscriber<? super T> actual;
+        private final SourceSubscriber<T>[] subscribers;
+        // Virtual time of each priority level: the start time of the latest item taken on that level.
+        private final long[] levelTimes;
+        private volatile long requested;
+        private volatile int wip;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        @SuppressWarnings("unchecked")
+        MergeCoordinator(CoreSubscriber<? super T> actual, List<SourceSpec<T>> specs, int prefetch) {
+            this.actual = actual;
+            this.subscribers = new SourceSubscriber[specs.size()];
+            int level = -1;
+            for (int i = 0; i < specs.size(); i++) {
+                SourceSpec<T> spec = specs.get(i);
+                if (i == 0 || spec.priority != specs.get(i - 1).priority) {
+                    level++;
+                }
+                subscribers[i] = new SourceSubscriber<>(this, spec.priority, level, TIME_UNIT / spec.weight,
+                    prefetch);
+            }
+            this.levelTimes = new long[level + 1];
+        }
+
+        void subscribe(List<SourceSpec<T>> specs) {
+            // Nothing is taken until all the sources are subscribed, otherwise a synchronous source could pass on its
+            // items before the sources with a higher priority even had the chance to send theirs.
+            WIP.lazySet(this, 1);
+            actual.onSubscribe(this);
+            for (int i = 0; i < specs.size() && !cancelled && error == null; i++) {
+                specs.get(i).source.subscribe(subscribers[i]);
+            }
+            drainLoop();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                cancelAll();
+                if (WIP.getAndIncrement(this) == 0) {
+                    clearAll();
+                }
+            }
+        }
+
+        void onError(Throwable throwable) {
+            if (ERROR.compareAndSet(this, null, throwable)) {
+                drain();
+            } else {
+                Operators.onErrorDropped(throwable, actual.currentContext());
+            }
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                long r = requested;
+                long emitted = 0;
+                for (;;) {
+                    if (cancelled) {
+                        clearAll();
+                        return;
+                    }
+                    Throwable throwable = error;
+                    if (throwable != null) {
+                        terminate();
+                        actual.onError(throwable);
+                        return;
+                    }
+
+                    SourceSubscriber<T> next = select();
+                    if (next == null) {
+                        if (isCompleted()) {
+                            terminate();
+                            actual.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+                    if (emitted == r) {
+                        break;
+                    }
+
+                    T item = next.queue.poll();
+                    long start = next.virtualTime;
+                    next.virtualTime = start + next.cost;
+                    levelTimes[next.level] = Math.max(levelTimes[next.level], start);
+                    if (next.queue.isEmpty()) {
+                        next.backlogged = false;
+                    }
+                    actual.onNext(item);
+                    emitted++;
+                    next.replenish();
+                }
+
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -emitted);
+                }
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        // Returns the source of the next item: the one with the earliest virtual finish time among the sources with
+        // the highest priority which have items queued.
+        private SourceSubscriber<T> select() {
+            SourceSubscriber<T> best = null;
+            long bestFinish = 0;
+            for (SourceSubscriber<T> subscriber : subscribers) {
+                if (best != null && subscriber.priority != best.priority) {
+                    break;
+                }
+                if (subscriber.queue.isEmpty()) {
+                    continue;
+                }
+                if (!subscriber.backlogged) {
+                    // A source which was idle can't claim the time it missed, it starts from the current time.
+                    subscriber.backlogged = true;
+                    subscriber.virtualTime = Math.max(subscriber.virtualTime, levelTimes[subscriber.level]);
+                }
+                long finish = subscriber.virtualTime + subscriber.cost;
+                if (best == null || finish < bestFinish) {
+                    best = subscriber;
+                    bestFinish = finish;
+                }
+            }
+            return best;
+        }
+
+        private boolean isCompleted() {
+            for (SourceSubscriber<T> subscriber : subscribers) {
+                if (!subscriber.done || !subscriber.queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void terminate() {
+            cancelled = true;
+            cancelAll();
+            clearAll();
+        }
+
+        private void cancelAll() {
+            for (SourceSubscriber<T> subscriber : subscribers) {
+                Operators.terminate(SourceSubscriber.UPSTREAM, subscriber);
+            }
+        }
+
+        private void clearAll() {
+            for (SourceSubscriber<T> subscriber : subscribers) {
+                subscriber.queue.clear();
+            }
+        }
+
+        Context currentContext() {
+            return actual.currentContext();
+        }
+    }
+
+    private static final class SourceSubscriber<T> implements CoreSubscriber<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<SourceSubscriber, Subscription> UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(SourceSubscriber.class, Subscription.class, "upstream");
+
+        private final MergeCoordinator<T> parent;
+        private final int priority;
+        private final int level;
+        private final long cost;
+        private final int prefetch;
+        private final int limit;
+        private final Queue<T> queue;
+        private volatile Subscription upstream;
+        private volatile boolean done;
+
+        // Only accessed in drain().
+        private long virtualTime;
+        private boolean backlogged;
+        private int consumed;
+
+        SourceSubscriber(MergeCoordinator<T> parent, int priority, int level, long cost, int prefetch) {
+            this.parent = parent;
+            this.priority = priority;
+            this.level = level;
+            this.cost = cost;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = Queues.<T>get(prefetch).get();
+        }
+
+        @Override
+        public Context currentContext() {
+            return parent.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.setOnce(UPSTREAM, this, subscription)) {
+                subscription.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                Operators.onNextDropped(item, currentContext());
+                return;
+            }
+            if (!queue.offer(item)) {
+                onError(Operators.onOperatorError(upstream, Exceptions.failWithOverflow(
+                    Exceptions.BACKPRESSURE_ERROR_QUEUE_FULL), item, currentContext()));
+                return;
+            }
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                Operators.onErrorDropped(throwable, currentContext());
+                return;
+            }
+            done = true;
+            parent.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                parent.drain();
+            }
+        }
+
+        void replenish() {
+            if (++consumed == limit) {
+                consumed = 0;
+                upstream.request(limit);
+            }
+        }
+    }
+
+}
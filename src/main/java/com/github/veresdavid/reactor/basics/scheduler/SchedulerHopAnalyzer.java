@@ -0,0 +1,191 @@
+package com.github.veresdavid.reactor.basics.scheduler;
+
+import org.reactivestreams.Publisher;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Walks an assembled chain with {@link Scannable}, and looks for thread hops and fusion barriers that cost more than
+ * they give.
+ *
+ * Every publishOn hands the items over to another thread through a queue, so two publishOn operators without any work
+ * in between, or a publishOn to the single-worker {@link Scheduler} we are already running on, only add queue hand-offs
+ * and context switches. A publishOn to the same pooled {@link Scheduler}, like boundedElastic or parallel, is not
+ * reported, as it picks another worker, which can be intended. Only the subscribeOn closest to the source decides where
+ * the source runs, so any further subscribeOn is redundant as well.
+ *
+ * Some of these cases can also be rewritten at assembly time, see {@link #enableRewriting()}.
+ */
+public final class SchedulerHopAnalyzer {
+
+    private static final String HOOK_KEY = SchedulerHopAnalyzer.class.getName();
+    private static final String PUBLISH_ON = "publishOn";
+    private static final String SUBSCRIBE_ON = "subscribeOn";
+
+    private SchedulerHopAnalyzer() {
+    }
+
+    /**
+     * Returns the findings for the chain, ordered from the source to the given (last) operator.
+     */
+    public static List<Finding> analyze(Publisher<?> publisher) {
+        Objects.requireNonNull(publisher, "publisher");
+        List<Scannable> steps = new ArrayList<>();
+        Scannable last = Scannable.from(publisher);
+        steps.add(last);
+        last.parents().forEach(steps::add);
+        Collections.reverse(steps);
+
+        List<Finding> findings = new ArrayList<>();
+        Scannable current = null;
+        boolean subscribeOnSeen = false;
+        for (int i = 0; i < steps.size(); i++) {
+            Scannable step = steps.get(i);
+            Scannable previous = i > 0 ? steps.get(i - 1) : null;
+
+            if (isPublishOn(step)) {
+                Scannable scheduler = step.scan(Scannable.Attr.RUN_ON);
+                if (previous != null && isPublishOn(previous)) {
+                    findings.add(new Finding(Finding.Type.REDUNDANT_PUBLISH_ON, i - 1, previous.stepName(),
+                        "publishOn directly followed by another publishOn, only the second one has any effect"));
+                } else if (scheduler != null && scheduler == current && isSingleWorker(scheduler)) {
+                    findings.add(new Finding(Finding.Type.REDUNDANT_PUBLISH_ON, i, step.stepName(),
+                        "publishOn to " + scheduler + ", whose only worker the chain is already running on"));
+                }
+                current = scheduler;
+            } else if (isSubscribeOn(step)) {
+                if (subscribeOnSeen) {
+                    findings.add(new Finding(Finding.Type.REDUNDANT_SUBSCRIBE_ON, i, step.stepName(),
+                        "subscribeOn after another subscribeOn, the one closer to the source wins"));
+                } else {
+                    subscribeOnSeen = true;
+                    if (current == null) {
+                        current = step.scan(Scannable.Attr.RUN_ON);
+                    }
+                }
+            }
+
+            if (previous != null && previous instanceof Fuseable && !(step instanceof Fuseable)) {
+                findings.add(new Finding(Finding.Type.FUSION_BARRIER, i, step.stepName(),
+                    step.stepName() + " does not support fusion, so the operators below it can not be fused with the "
+                        + "ones above it"));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Installs an assembly hook, which rewrites the following cases of every {@link Flux} assembled afterwards:
+     * - {@code publishOn(a).publishOn(b)} becomes {@code publishOn(b)}
+     * - {@code subscribeOn(a).subscribeOn(b)} becomes {@code subscribeOn(a)}
+     *
+     * The hook is global, so it is meant to be enabled once, on application startup.
+     */
+    public static void enableRewriting() {
+        Hooks.onEachOperator(HOOK_KEY, SchedulerHopAnalyzer::rewrite);
+    }
+
+    public static void disableRewriting() {
+        Hooks.resetOnEachOperator(HOOK_KEY);
+    }
+
+    private static Publisher<Object> rewrite(Publisher<Object> publisher) {
+        if (!(publisher instanceof Flux)) {
+            return publisher;
+        }
+        Scannable step = Scannable.from(publisher);
+        Scannable parent = step.scan(Scannable.Attr.PARENT);
+        if (parent == null || !(parent instanceof Publisher)) {
+            return publisher;
+        }
+
+        if (isPublishOn(step) && isPublishOn(parent)) {
+            Scannable grandParent = parent.scan(Scannable.Attr.PARENT);
+            Scannable scheduler = step.scan(Scannable.Attr.RUN_ON);
+            Integer prefetch = step.scan(Scannable.Attr.PREFETCH);
+            if (grandParent instanceof Publisher && scheduler instanceof Scheduler && prefetch != null) {
+                @SuppressWarnings("unchecked")
+                Publisher<Object> source = (Publisher<Object>) grandParent;
+                boolean delayError = Boolean.TRUE.equals(step.scan(Scannable.Attr.DELAY_ERROR));
+                return Flux.from(source)
+                    .publishOn((Scheduler) scheduler, delayError, prefetch);
+            }
+        } else if (isSubscribeOn(step) && isSubscribeOn(parent)) {
+            @SuppressWarnings("unchecked")
+            Publisher<Object> source = (Publisher<Object>) parent;
+            return Flux.from(source);
+        }
+        return publisher;
+    }
+
+    private static boolean isPublishOn(Scannable step) {
+        return PUBLISH_ON.equals(step.stepName());
+    }
+
+    private static boolean isSubscribeOn(Scannable step) {
+        return step.stepName().startsWith(SUBSCRIBE_ON);
+    }
+
+    // A pooled Scheduler reports the number of its workers as its capacity.
+    private static boolean isSingleWorker(Scannable scheduler) {
+        Integer capacity = scheduler.scan(Scannable.Attr.CAPACITY);
+        return capacity != null && capacity == 1;
+    }
+
+    /**
+     * One issue found in a chain.
+     */
+    public static final class Finding {
+
+        public enum Type {
+            REDUNDANT_PUBLISH_ON,
+            REDUNDANT_SUBSCRIBE_ON,
+            FUSION_BARRIER
+        }
+
+        private final Type type;
+        private final int position;
+        private final String stepName;
+        private final String description;
+
+        Finding(Type type, int position, String stepName, String description) {
+            this.type = type;
+            this.position = position;
+            this.stepName = stepName;
+            this.description = description;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Position of the affected operator in the chain, where the source is at 0.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        public String getStepName() {
+            return stepName;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return type + " at #" + position + " (" + stepName + "): " + description;
+        }
+    }
+
+}
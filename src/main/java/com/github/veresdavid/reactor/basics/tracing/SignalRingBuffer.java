@@ -0,0 +1,107 @@
+package com.github.veresdavid.reactor.basics.tracing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * Fixed size, single writer ring buffer of signals. Each thread writes its own buffer, so writing needs no
+ * synchronization. When the buffer is full, the oldest signals are overwritten.
+ *
+ * The signals are stored in pre-allocated parallel arrays, and nothing is formatted until {@link #drainTo(List)}.
+ * The reader never writes the slots or the write index, only its own read index, so it never disturbs the writer. As
+ * a consequence, the payloads of the drained signals are only released when they are overwritten, or with the buffer.
+ */
+final class SignalRingBuffer {
+
+    private static final VarHandle WRITTEN;
+
+    static {
+        try {
+            WRITTEN = MethodHandles.lookup().findVarHandle(SignalRingBuffer.class, "written", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final WeakReference<Thread> owner;
+    private final String threadName;
+    private final int mask;
+    private final long[] timestamps;
+    private final long[] subscriptionIds;
+    private final byte[] signals;
+    private final long[] arguments;
+    private final Object[] payloads;
+    private final String[] names;
+    // Written with release semantics only, as a full volatile write would cost more than the rest of the record.
+    private long written;
+    // Index of the next signal to drain, only accessed by the reader, which is synchronized by SignalTracer.
+    private long read;
+
+    SignalRingBuffer(Thread owner, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2 but it was " + capacity);
+        }
+        this.owner = new WeakReference<>(owner);
+        this.threadName = owner.getName();
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.subscriptionIds = new long[capacity];
+        this.signals = new byte[capacity];
+        this.arguments = new long[capacity];
+        this.payloads = new Object[capacity];
+        this.names = new String[capacity];
+    }
+
+    void record(long timestamp, String name, long subscriptionId, byte signal, long argument, Object payload) {
+        long index = written;
+        int slot = (int) (index & mask);
+        timestamps[slot] = timestamp;
+        subscriptionIds[slot] = subscriptionId;
+        signals[slot] = signal;
+        arguments[slot] = argument;
+        payloads[slot] = payload;
+        names[slot] = name;
+        WRITTEN.setRelease(this, index + 1);
+    }
+
+    /**
+     * Moves the signals written since the previous drain to the given list, from the oldest to the newest. The
+     * writer thread can overwrite a slot while it is copied, so the signals overwritten during the copy are skipped.
+     * While the writer stores the signal at index {@code w}, it overwrites the slot of {@code w - capacity}, so at
+     * most {@code capacity - 1} signals are kept.
+     */
+    void drainTo(List<TracedSignal> target) {
+        long end = (long) WRITTEN.getAcquire(this);
+        long start = Math.max(read, end - mask);
+        int first = target.size();
+        for (long index = start; index < end; index++) {
+            int slot = (int) (index & mask);
+            target.add(new TracedSignal(timestamps[slot], threadName, names[slot], subscriptionIds[slot],
+                signals[slot], arguments[slot], payloads[slot]));
+        }
+        VarHandle.loadLoadFence();
+        long overwritten = Math.min(end, (long) WRITTEN.getAcquire(this) - mask) - start;
+        if (overwritten > 0) {
+            target.subList(first, first + (int) overwritten).clear();
+        }
+        read = end;
+    }
+
+    /**
+     * Skips the signals written so far, without copying them.
+     */
+    void skip() {
+        read = (long) WRITTEN.getAcquire(this);
+    }
+
+    /**
+     * Returns whether the thread writing this buffer is still alive, so the buffer can get new signals.
+     */
+    boolean isOwnerAlive() {
+        Thread thread = owner.get();
+        return thread != null && thread.isAlive();
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.github.veresdavid.reactor.basics.tracing;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A cheap replacement of the {@code log()} operator for hot pipelines.
+ *
+ * Instead of formatting and logging every signal, the traced signals are stored in a pre-allocated ring buffer of
+ * the thread which emitted them. Nothing is formatted until {@link #dump()} is called, and the ring buffers keep only
+ * the latest signals, so tracing can be left on in production.
+ *
+ * With a sample rate below 1, only some of the subscriptions are traced. The decision is made once per subscription,
+ * so a traced subscription always has all of its signals, while the others don't pay anything for tracing.
+ *
+ * By default, the signals are timestamped with a clock of millisecond resolution, as reading
+ * {@link System#nanoTime()} can cost more than the rest of the recording. Precise timestamps can be turned on with
+ * {@link #setPreciseTimestamps(boolean)}. Signals with the same timestamp are dumped in the order they were recorded
+ * on their thread.
+ *
+ * Each thread gets its own ring buffer, when it records its first signal. The buffers of the threads which died are
+ * released when another thread gets a buffer, or at the next {@link #dump()}, so a churn of threads, like on
+ * boundedElastic, doesn't grow the memory used for tracing.
+ *
+ * Usage: {@code flux.transform(SignalTracer.trace("heroes"))}
+ */
+public final class SignalTracer {
+
+    private static final int BUFFER_CAPACITY = 4096;
+
+    private static final List<SignalRingBuffer> BUFFERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<SignalRingBuffer> BUFFER = ThreadLocal.withInitial(SignalTracer::register);
+    private static final AtomicLong SUBSCRIPTION_IDS = new AtomicLong();
+
+    private static volatile boolean enabled = true;
+    private static volatile boolean preciseTimestamps;
+
+    private SignalTracer() {
+    }
+
+    public static <T> Function<Publisher<T>, Publisher<T>> trace(String name) {
+        return trace(name, 1.0);
+    }
+
+    /**
+     * Traces the given share of the subscriptions, where {@code sampleRate} is between 0 and 1.
+     */
+    public static <T> Function<Publisher<T>, Publisher<T>> trace(String name, double sampleRate) {
+        Objects.requireNonNull(name, "name");
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("0 <= sampleRate <= 1 required but it was " + sampleRate);
+        }
+        Function<? super Publisher<T>, ? extends Publisher<T>> lift = Operators.<T, T>lift((scannable, actual) -> {
+            if (!enabled || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+                return actual;
+            }
+            return new TracingSubscriber<>(actual, name, SUBSCRIPTION_IDS.incrementAndGet());
+        });
+        return lift::apply;
+    }
+
+    /**
+     * Turns tracing on or off for the subscriptions made afterwards.
+     */
+    public static void setEnabled(boolean enabled) {
+        SignalTracer.enabled = enabled;
+    }
+
+    public static void setPreciseTimestamps(boolean preciseTimestamps) {
+        SignalTracer.preciseTimestamps = preciseTimestamps;
+    }
+
+    /**
+     * Collects the signals recorded since the previous dump or clear from the ring buffers of all threads, ordered by
+     * time. The buffers of the threads which are not alive anymore are released after this.
+     */
+    public static synchronized List<TracedSignal> dump() {
+        List<TracedSignal> signals = new ArrayList<>();
+        for (SignalRingBuffer buffer : BUFFERS) {
+            buffer.drainTo(signals);
+        }
+        BUFFERS.removeIf(buffer -> !buffer.isOwnerAlive());
+        signals.sort(Comparator.comparingLong(TracedSignal::getTimestamp));
+        return signals;
+    }
+
+    /**
+     * Drops the signals recorded so far. The writer threads are not stopped, so the signals recorded during the clear
+     * may or may not be dropped.
+     */
+    public static synchronized void clear() {
+        for (SignalRingBuffer buffer : BUFFERS) {
+            buffer.skip();
+        }
+        BUFFERS.removeIf(buffer -> !buffer.isOwnerAlive());
+    }
+
+    private static SignalRingBuffer register() {
+        SignalRingBuffer buffer = new SignalRingBuffer(Thread.currentThread(), BUFFER_CAPACITY);
+        BUFFERS.removeIf(existing -> !existing.isOwnerAlive());
+        BUFFERS.add(buffer);
+        return buffer;
+    }
+
+    private static final class TracingSubscriber<T> implements CoreSubscriber<T>, Subscription {
+        private final CoreSubscriber<? super T> actual;
+        private final String name;
+        private final long subscriptionId;
+        private Subscription upstream;
+
+        TracingSubscriber(CoreSubscriber<? super T> actual, String name, long subscriptionId) {
+            this.actual = actual;
+            this.name = name;
+            this.subscriptionId = subscriptionId;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (Operators.validate(upstream, subscription)) {
+                upstream = subscription;
+                record(TracedSignal.ON_SUBSCRIBE, 0, null);
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            record(TracedSignal.ON_NEXT, 0, value);
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            record(TracedSignal.ON_ERROR, 0, throwable);
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            record(TracedSignal.ON_COMPLETE, 0, null);
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            record(TracedSignal.REQUEST, n, null);
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            record(TracedSignal.CANCEL, 0, null);
+            upstream.cancel();
+        }
+
+        private void record(byte signal, long argument, Object payload) {
+            long timestamp = preciseTimestamps ? System.nanoTime() : CoarseClock.nanoTime();
+            BUFFER.get().record(timestamp, name, subscriptionId, signal, argument, payload);
+        }
+    }
+
+}
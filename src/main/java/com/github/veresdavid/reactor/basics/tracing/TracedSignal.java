@@ -0,0 +1,78 @@
+package com.github.veresdavid.reactor.basics.tracing;
+
+/**
+ * A signal read back from a {@link SignalRingBuffer}. The payload is only turned into a {@link String} in
+ * {@link #toString()}.
+ */
+public final class TracedSignal {
+
+    static final byte ON_SUBSCRIBE = 0;
+    static final byte ON_NEXT = 1;
+    static final byte ON_ERROR = 2;
+    static final byte ON_COMPLETE = 3;
+    static final byte REQUEST = 4;
+    static final byte CANCEL = 5;
+
+    private static final String[] SIGNAL_NAMES = {"onSubscribe", "onNext", "onError", "onComplete", "request",
+        "cancel"};
+
+    private final long timestamp;
+    private final String threadName;
+    private final String name;
+    private final long subscriptionId;
+    private final byte signal;
+    private final long argument;
+    private final Object payload;
+
+    TracedSignal(long timestamp, String threadName, String name, long subscriptionId, byte signal, long argument,
+                 Object payload) {
+        this.timestamp = timestamp;
+        this.threadName = threadName;
+        this.name = name;
+        this.subscriptionId = subscriptionId;
+        this.signal = signal;
+        this.argument = argument;
+        this.payload = payload;
+    }
+
+    /**
+     * Value of {@link System#nanoTime()} when the signal was recorded.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    /**
+     * Name of the signal, like onNext or request.
+     */
+    public String getSignal() {
+        return SIGNAL_NAMES[signal];
+    }
+
+    @Override
+    public String toString() {
+        String details;
+        if (signal == REQUEST) {
+            details = argument == Long.MAX_VALUE ? "unbounded" : String.valueOf(argument);
+        } else if (payload != null) {
+            details = String.valueOf(payload);
+        } else {
+            details = "";
+        }
+        return timestamp + " [" + threadName + "] " + name + "#" + subscriptionId + " " + getSignal() + "(" + details
+            + ")";
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.github.veresdavid.reactor.basics.scheduler;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory for {@link Scheduler}s backed by virtual threads (Java 21+).
+ *
+ * Unlike {@link Schedulers#boundedElastic()}, which caps the number of platform threads at 10 times the number of
+ * CPU cores, every task gets its own virtual thread here. A blocking call parks its virtual thread, and releases the
+ * carrier platform thread, so thousands of blocking calls can wait at the same time.
+ *
+ * The {@link Scheduler} is meant for {@code subscribeOn} and {@code publishOn}. It can not run delayed or periodic
+ * tasks, but operators like {@code delayElements} or {@code interval} use {@link Schedulers#parallel()} by default
+ * anyway.
+ */
+public final class VirtualThreadSchedulers {
+
+    private VirtualThreadSchedulers() {
+    }
+
+    /**
+     * Creates a new {@link Scheduler}, which starts a new virtual thread for each task. The {@link Scheduler} should
+     * be disposed when it is not needed anymore.
+     */
+    public static Scheduler newVirtualThreadScheduler(String name) {
+        Objects.requireNonNull(name, "name");
+        return Schedulers.fromExecutorService(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory()), name);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import com.github.veresdavid.reactor.basics.mono.MonoSubscribeTest;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 33. Adaptive demand
+ *
+ * In {@link MonoSubscribeTest}, we request the items by hand, one at a time. For a {@link Flux} with many items, each
+ * request goes through the operators above again and again. With {@link AdaptiveSubscriber}, the items are requested
+ * in batches, which grow as long as the subscriber keeps up, so we can see fewer and fewer, but bigger requests with
+ * doOnRequest.
+ */
+public class FluxAdaptiveDemandTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxAdaptiveDemandTest.class);
+
+    @Test
+    public void fluxWithAdaptiveSubscriberTest() {
+        // given
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        Flux<Integer> flux = Flux.range(1, 1000)
+            .doOnRequest(n -> LOGGER.info("Number of items requested = {}", n))
+            .doOnRequest(requests::add);
+
+        // manual try
+        // Requesting one by one, we would see a thousand requests, with the adaptive subscriber, only a few.
+        flux.take(20)
+            .subscribe(AdaptiveSubscriber.of(i -> LOGGER.info("{} clone trooper", i)));
+
+        TestUtil.logSeparatorLine();
+
+        // when
+        requests.clear();
+        AtomicInteger troopers = new AtomicInteger();
+        AdaptiveSubscriber<Integer> subscriber = AdaptiveSubscriber.of(i -> troopers.incrementAndGet());
+        flux.subscribe(subscriber);
+
+        // then
+        // The first request is a single item, then they grow quickly, as the clone troopers are processed quickly.
+        // The growth depends on the measured rate, so a pause of the test thread can shrink a batch now and then, but
+        // the requests still reach dozens of items.
+        Assertions.assertEquals(1000, troopers.get());
+        Assertions.assertEquals(1L, requests.get(0));
+        Assertions.assertTrue(requests.stream().mapToLong(Long::longValue).max().orElse(0) >= 64,
+            "requests: " + requests);
+        Assertions.assertEquals(requests.size(), subscriber.getRequestCalls());
+    }
+
+    @Test
+    public void fluxWithSlowAdaptiveSubscriberTest() {
+        // given
+        // Processing a clone trooper takes a millisecond, so 10 milliseconds of buffer time is about 10 of them.
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        Flux<Integer> flux = Flux.range(1, 100)
+            .doOnRequest(requests::add);
+        AdaptiveSubscriber<Integer> subscriber = new AdaptiveSubscriber<Integer>(1 << 20, 64, Duration.ofMillis(10)) {
+            @Override
+            protected void process(Integer value) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        };
+
+        // when
+        flux.subscribe(subscriber);
+
+        // then
+        // The batches stop growing at the rate the subscriber can keep up with, so the items don't pile up.
+        LOGGER.info("Requests: {}", requests);
+        Assertions.assertTrue(subscriber.getBatch() <= 10, "batch: " + subscriber.getBatch());
+        Assertions.assertTrue(requests.stream().allMatch(n -> n <= 10), "requests: " + requests);
+    }
+
+}
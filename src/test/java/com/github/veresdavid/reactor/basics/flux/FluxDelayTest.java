@@ -1,5 +1,7 @@
 package com.github.veresdavid.reactor.basics.flux;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -14,12 +16,13 @@ import java.time.Duration;
  *
  * Here we take a look at how can we delay the items of a {@link Flux} and how can we write tests for such cases.
  */
+@IsolatedSchedulers
 public class FluxDelayTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FluxDelayTest.class);
 
     @Test
-    public void fluxWithInterval() throws InterruptedException {
+    public void fluxWithInterval() {
         // given
         // Here we create an endless Flux which emits items every 100 milliseconds, from 0 to n,
         // but we only take 5 of them.
@@ -28,10 +31,10 @@ public class FluxDelayTest {
             .take(5);
 
         // manual try
-        flux.subscribe(aLong -> LOGGER.info("{} little jawa", aLong));
-
-        // We perform a short manual sleep here, to make sure we get all the items from our Flux.
-        Thread.sleep(1000);
+        // We wait until our Flux completes, to make sure we get all the items from it. It should take 500
+        // milliseconds, so we give it a budget of twice as much.
+        AwaitUtil.awaitTermination("little jawas", flux, aLong -> LOGGER.info("{} little jawa", aLong),
+            Duration.ofMillis(1000));
 
         TestUtil.logSeparatorLine();
 
@@ -74,14 +77,12 @@ public class FluxDelayTest {
     }
 
     @Test
-    public void fluxWithDelayedCustomItemsTest() throws InterruptedException {
+    public void fluxWithDelayedCustomItemsTest() {
         // given
         Flux<String> flux = fluxOfHeadhunters();
 
         // manual try
-        flux.subscribe(s -> LOGGER.info("Value = {}", s));
-
-        Thread.sleep(2500);
+        AwaitUtil.awaitTermination("headhunters", flux, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(2500));
 
         TestUtil.logSeparatorLine();
 
@@ -1,5 +1,6 @@
 package com.github.veresdavid.reactor.basics.flux;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -22,7 +23,7 @@ public class FluxHotTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(FluxHotTest.class);
 
     @Test
-    public void fluxToHotFluxTest() throws InterruptedException {
+    public void fluxToHotFluxTest() {
         // given
         ConnectableFlux<Integer> flux = connectableFlux();
 
@@ -31,13 +32,12 @@ public class FluxHotTest {
         // matter if it has any subscriptions or not.
         flux.connect();
 
-        // We perform a short sleep, so when we subscribe we will see that some items were already emitted and we
-        // won't receive them.
-        Thread.sleep(300);
+        // We wait until the first 2 items are emitted, so when we subscribe we will see that some items were already
+        // emitted and we won't receive them.
+        AwaitUtil.awaitNext("first ewoks", flux, 2, Duration.ofMillis(500));
 
-        flux.subscribe(integer -> LOGGER.info("{} little ewok", integer));
-
-        Thread.sleep(500);
+        AwaitUtil.awaitTermination("little ewoks", flux, integer -> LOGGER.info("{} little ewok", integer),
+            Duration.ofMillis(500));
 
         TestUtil.logSeparatorLine();
 
@@ -0,0 +1,114 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import com.github.veresdavid.reactor.basics.io.FluxMappedFileTest;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 35. Decoding records from chunks
+ *
+ * Like in {@link FluxCreationTest}, we create {@link Flux}es, but from the {@link ByteBuffer} chunks we get from a
+ * file, like in {@link FluxMappedFileTest}, or from the network. With {@link RecordDecoder}, the chunks are split into
+ * lines or length-prefixed records as they arrive, even if a record is split between two chunks.
+ */
+public class FluxRecordDecoderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxRecordDecoderTest.class);
+
+    @Test
+    public void fluxOfLinesTest() {
+        // given
+        // The names are split between the chunks, and one of the lines ends with "\r\n".
+        Flux<CharSequence> flux = chunks("Luke Skywalker\nLeia Or", "gana\r\nHan Solo\nChew", "bacca")
+            .log()
+            .transform(RecordDecoder.lines(StandardCharsets.US_ASCII, 32));
+
+        // manual try
+        flux.subscribe(line -> LOGGER.info("Line = {}", line));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // The lines are views of the chunks, so we call toString() to compare them.
+        StepVerifier.create(flux.map(CharSequence::toString))
+            .expectNext("Luke Skywalker", "Leia Organa", "Han Solo", "Chewbacca")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxOfUtf8LinesTest() {
+        // given
+        // The chunks are split in the middle of the two bytes of the "é", which are carried over to the next chunk.
+        byte[] bytes = "Padmé Amidala\nJyn Erso\n".getBytes(StandardCharsets.UTF_8);
+        Flux<ByteBuffer> chunks = Flux.just(ByteBuffer.wrap(bytes, 0, 5), ByteBuffer.wrap(bytes, 5, bytes.length - 5));
+
+        // when - then
+        // With UTF-8, the lines are decoded into Strings.
+        StepVerifier.create(chunks.transform(RecordDecoder.lines(StandardCharsets.UTF_8, 32)))
+            .assertNext(line -> Assertions.assertEquals("Padmé Amidala", line))
+            .assertNext(line -> Assertions.assertEquals("Jyn Erso", line))
+            .verifyComplete();
+        // UTF-16 encodes '\n' in two bytes, so the lines can't be split on the '\n' byte.
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> RecordDecoder.lines(StandardCharsets.UTF_16, 32));
+    }
+
+    @Test
+    public void fluxOfTooLongLinesTest() {
+        // given
+        // Only 8 characters fit into the carry-over buffer, so the second line is an error, not a bigger buffer.
+        Flux<CharSequence> flux = chunks("Rey\nObi-Wan", " Kenobi\n")
+            .transform(RecordDecoder.lines(StandardCharsets.US_ASCII, 8));
+
+        // when - then
+        StepVerifier.create(flux.map(CharSequence::toString))
+            .expectNext("Rey")
+            .expectErrorMessage("Record longer than 8 bytes")
+            .verify();
+    }
+
+    @Test
+    public void fluxOfLengthPrefixedRecordsTest() {
+        // given
+        // Every droid is prefixed with its length, and the chunks are only 3 bytes, so even the prefixes are split.
+        ByteBuffer payload = ByteBuffer.allocate(64);
+        for (String droid : Arrays.asList("R2-D2", "", "BB-8")) {
+            payload.putInt(droid.length()).put(droid.getBytes(StandardCharsets.US_ASCII));
+        }
+        payload.flip();
+        Flux<ByteBuffer> chunks = Flux.range(0, (payload.limit() + 2) / 3)
+            .map(i -> {
+                ByteBuffer chunk = payload.duplicate();
+                chunk.position(i * 3).limit(Math.min(i * 3 + 3, payload.limit()));
+                return chunk.slice();
+            });
+
+        // when - then
+        StepVerifier.create(chunks.transform(RecordDecoder.lengthPrefixed(16))
+                .map(record -> StandardCharsets.US_ASCII.decode(record).toString()))
+            .expectNext("R2-D2", "", "BB-8")
+            .verifyComplete();
+
+        // When the chunks end in the middle of a droid, it is an error.
+        StepVerifier.create(chunks.take(4).transform(RecordDecoder.lengthPrefixed(16)))
+            .expectNextCount(1)
+            .verifyError(IllegalStateException.class);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RecordDecoder.lengthPrefixed(0));
+    }
+
+    // Helper method to create a Flux of chunks from the given parts.
+    private Flux<ByteBuffer> chunks(String... parts) {
+        return Flux.fromArray(parts)
+            .map(part -> ByteBuffer.wrap(part.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 22. Hot Flux with replay
+ *
+ * In {@link FluxHotTest}, the late subscriber missed the ewoks emitted before it subscribed. With
+ * {@link RingBufferFlux}, the latest items are kept in a ring buffer, so late subscribers can get some of them
+ * replayed, and each subscriber reads the buffer at its own pace, without holding back the source.
+ */
+@IsolatedSchedulers
+public class FluxRingBufferTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxRingBufferTest.class);
+
+    @Test
+    public void ringBufferFluxWithReplayedCountTest() {
+        // given
+        RingBufferFlux<Integer> flux = RingBufferFlux.builder(Flux.range(1, 5).log())
+            .capacity(16)
+            .replayLast(3)
+            .build();
+
+        // manual try
+        // The source is synchronous, so all the ewoks are emitted before anyone subscribes.
+        flux.connect();
+
+        flux.subscribe(integer -> LOGGER.info("{} little ewok", integer));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // Every late subscriber gets the last 3 ewoks replayed.
+        StepVerifier.create(flux)
+            .expectNext(3, 4, 5)
+            .verifyComplete();
+    }
+
+    @Test
+    public void ringBufferFluxWithReplayedAgeTest() {
+        // when - then
+        // An ewok arrives every 100 ms, and late subscribers get the ones from the last 200 ms.
+        StepVerifier.withVirtualTime(() -> {
+            RingBufferFlux<Long> flux = RingBufferFlux.builder(Flux.interval(Duration.ofMillis(100)).take(10))
+                .replayFor(Duration.ofMillis(200), Schedulers.parallel())
+                .build();
+            flux.connect();
+            return Flux.defer(() -> flux)
+                .delaySubscription(Duration.ofMillis(550));
+        })
+            .thenAwait(Duration.ofMillis(550))
+            .expectNext(3L, 4L)
+            .thenAwait(Duration.ofMillis(500))
+            .expectNext(5L, 6L, 7L, 8L, 9L)
+            .verifyComplete();
+    }
+
+    @Test
+    public void ringBufferFluxWithSlowSubscriberTest() {
+        // given
+        RingBufferFlux<Integer> flux = RingBufferFlux.builder(Flux.range(1, 100))
+            .capacity(16)
+            .build();
+
+        // when - then
+        // The subscriber requests nothing, so it falls behind, and gets dropped instead of stalling the source.
+        StepVerifier.create(flux, 0)
+            .then(flux::connect)
+            .expectErrorMatches(Exceptions::isOverflow)
+            .verify();
+    }
+
+    @Test
+    public void ringBufferFluxWithFullCapacityLagTest() {
+        // given
+        RingBufferFlux<Integer> flux = RingBufferFlux.builder(Flux.range(1, 16))
+            .capacity(16)
+            .build();
+        RingBufferFlux<Integer> overflowingFlux = RingBufferFlux.builder(Flux.range(1, 17))
+            .capacity(16)
+            .build();
+
+        // when - then
+        // The subscriber can fall behind by exactly the capacity, but not by one more ewok.
+        StepVerifier.create(flux, 0)
+            .then(flux::connect)
+            .thenRequest(Long.MAX_VALUE)
+            .expectNextCount(16)
+            .verifyComplete();
+        StepVerifier.create(overflowingFlux, 0)
+            .then(overflowingFlux::connect)
+            .expectErrorMatches(Exceptions::isOverflow)
+            .verify();
+        // A ring buffer of 2^30 ewoks would need 2^31 slots, which don't fit into an array.
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> RingBufferFlux.builder(Flux.range(1, 16)).capacity(1 << 30));
+    }
+
+    @Test
+    public void ringBufferFluxWithRefCountTest() {
+        // given
+        AtomicInteger connections = new AtomicInteger();
+        Flux<Integer> flux = RingBufferFlux.builder(Flux.range(1, 3).concatWith(Flux.never())
+                .doOnSubscribe(subscription -> connections.incrementAndGet()))
+            .build()
+            .refCount();
+
+        // when - then
+        // When the last subscriber leaves, the connection is disposed, and the next subscriber connects again.
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(flux.take(3))
+                .expectNext(1, 2, 3)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        }
+        Assertions.assertEquals(2, connections.get());
+    }
+
+    @Test
+    public void ringBufferFluxWithConflatingSubscriberTest() {
+        // given
+        RingBufferFlux<Integer> flux = RingBufferFlux.builder(Flux.range(1, 100))
+            .capacity(16)
+            .overflow(RingBufferFlux.Overflow.CONFLATE)
+            .build();
+
+        // when - then
+        // With conflation, the slow subscriber skips the missed items, and continues with the latest one, so it only
+        // gets the last few items.
+        StepVerifier.create(flux, 0)
+            .then(flux::connect)
+            .thenRequest(Long.MAX_VALUE)
+            .recordWith(ArrayList::new)
+            .thenConsumeWhile(integer -> true)
+            .consumeRecordedWith(integers -> {
+                LOGGER.info("Received {}", integers);
+                Assertions.assertTrue(integers.size() < 16);
+                Assertions.assertTrue(integers.contains(100));
+            })
+            .verifyComplete();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.github.veresdavid.reactor.basics.flux;
+
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * 14. Primitive Flux
+ *
+ * A {@link Flux} of numbers, like the one created by {@link Flux#range(int, int)}, boxes every item into an
+ * {@link Integer} or {@link Long}. For number crunching pipelines, this can be the main source of allocations. In
+ * this test suite, we take a look at {@link IntFlux} and {@link LongFlux}, which pass the items as primitives.
+ */
+@IsolatedSchedulers
+public class PrimitiveFluxTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrimitiveFluxTest.class);
+
+    @Test
+    public void intFluxWithRange() {
+        // given
+        // The items between the range, the map and the filter are never boxed, only the final sum is emitted as an
+        // Integer through a Mono.
+        Mono<Integer> mono = IntFlux.range(1, 5)
+            .map(i -> i * 10)
+            .filter(i -> i != 30)
+            .sum();
+
+        // manual try
+        mono.subscribe(sum -> LOGGER.info("{} battle droids", sum));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(mono)
+            .expectNext(120)
+            .verifyComplete();
+    }
+
+    @Test
+    public void intFluxWithBackpressure() {
+        // given
+        // If we need a regular Flux, we can box the items at the very end of the chain.
+        // The request protocol is respected all the way, so we can request the items one by one.
+        Flux<Integer> flux = IntFlux.range(1, 3)
+            .map(i -> -i)
+            .boxed()
+            .log();
+
+        // manual try
+        flux.subscribe(i -> LOGGER.info("Value = {}", i));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux, 1)
+            .expectNext(-1)
+            .thenRequest(1)
+            .expectNext(-2)
+            .thenRequest(1)
+            .expectNext(-3)
+            .verifyComplete();
+    }
+
+    @Test
+    public void intFluxWithWindow() {
+        // given
+        // Windows are emitted as int arrays, so we allocate one object per window instead of one per item.
+        Flux<int[]> flux = IntFlux.range(1, 5)
+            .window(2);
+
+        // manual try
+        flux.subscribe(window -> LOGGER.info("Window with {} clones", window.length));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux)
+            .assertNext(window -> Assertions.assertArrayEquals(new int[]{1, 2}, window))
+            .assertNext(window -> Assertions.assertArrayEquals(new int[]{3, 4}, window))
+            .assertNext(window -> Assertions.assertArrayEquals(new int[]{5}, window))
+            .verifyComplete();
+    }
+
+    @Test
+    public void longFluxWithIntervalEffectiveTest() {
+        // given
+        // Just like in case of Flux.interval, we instantiate the LongFlux inside the callback of withVirtualTime,
+        // so it will use the VirtualTimeScheduler.
+
+        // when - then
+        StepVerifier.withVirtualTime(() -> LongFlux.interval(Duration.ofDays(1)).take(3).sum())
+            .expectSubscription()
+            .expectNoEvent(Duration.ofDays(2))
+            .thenAwait(Duration.ofDays(1))
+            .expectNext(3L)
+            .verifyComplete();
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.github.veresdavid.reactor.basics.io;
+
+import com.github.veresdavid.reactor.basics.flux.FluxCreationTest;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 34. Memory-mapped files
+ *
+ * In {@link FluxCreationTest}, the items of the {@link Flux}es are already in memory. With {@link MappedFiles}, we can
+ * read a file as a {@link Flux} of {@link ByteBuffer} chunks, which are slices of the memory-mapped file, and write
+ * such chunks to another file, without copying the bytes on the heap.
+ */
+public class FluxMappedFileTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxMappedFileTest.class);
+
+    private static final String PLANS =
+        "Death Star plans: thermal exhaust port, 2 meters wide, right below the main port.";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void fluxFromMappedFileTest() throws IOException {
+        // given
+        // The chunks are 16 bytes, and only 32 bytes of the file are mapped at a time.
+        Path plans = writePlans("plans.txt");
+        Flux<ByteBuffer> flux = MappedFiles.read(plans, 16, 32)
+            .log();
+
+        // manual try
+        flux.subscribe(chunk -> LOGGER.info("Chunk = {}", StandardCharsets.US_ASCII.decode(chunk)));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // The last chunk is shorter, and none of them can be modified.
+        StepVerifier.create(flux)
+            .expectNextCount(5)
+            .assertNext(chunk -> {
+                Assertions.assertEquals(PLANS.length() % 16, chunk.remaining());
+                Assertions.assertTrue(chunk.isReadOnly());
+            })
+            .verifyComplete();
+        StepVerifier.create(flux.map(chunk -> StandardCharsets.US_ASCII.decode(chunk).toString())
+                .reduce(String::concat))
+            .expectNext(PLANS)
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxToFileTest() throws IOException {
+        // given
+        // The chunks of the plans are written 4 at a time to the copy.
+        Path plans = writePlans("plans.txt");
+        Path copy = directory.resolve("copy.txt");
+
+        // when - then
+        StepVerifier.create(MappedFiles.write(MappedFiles.read(plans, 8, 8), copy, 4))
+            .expectNext((long) PLANS.length())
+            .verifyComplete();
+        Assertions.assertEquals(PLANS, Files.readString(copy));
+    }
+
+    // Helper method to write the plans to a file in the temporary directory.
+    private Path writePlans(String name) throws IOException {
+        return Files.writeString(directory.resolve(name), PLANS);
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.github.veresdavid.reactor.basics.metrics;
+
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple3;
+
+import java.time.Duration;
+
+/**
+ * 21. Pipeline metrics
+ *
+ * With {@link PipelineMetrics}, we can mark some stages of a chain, and see how many elements go through them, how
+ * long the rest of the chain takes, and how much demand is waiting to be fulfilled.
+ */
+@IsolatedSchedulers
+public class PipelineMetricsTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineMetricsTest.class);
+
+    @Test
+    public void fluxWithStageMetricsTest() {
+        // given
+        // The zip stage measures the time spent in the map below it.
+        Flux<String> name = Flux.just("Luminara Unduli", "Bariss Offee");
+        Flux<String> rank = Flux.just("Master", "Padawan");
+        Flux<String> saberColor = Flux.just("green", "blue");
+        Flux<String> flux = Flux.zip(name, rank, saberColor)
+            .transform(PipelineMetrics.stage("jediZip"))
+            .map(this::tupleToJedi)
+            .transform(PipelineMetrics.stage("jedi"));
+
+        // manual try
+        flux.subscribe(jedi -> LOGGER.info("{}", jedi));
+        LOGGER.info("{}", PipelineMetrics.snapshot("jediZip"));
+        LOGGER.info("{}", PipelineMetrics.snapshot("jedi"));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(2)
+            .verifyComplete();
+        StageSnapshot snapshot = PipelineMetrics.snapshot("jediZip");
+        Assertions.assertEquals(4, snapshot.getElements());
+        Assertions.assertEquals(4, snapshot.getDownstreamLatency().getTotalCount());
+        Assertions.assertEquals(0, snapshot.getOutstandingDemand());
+        Assertions.assertEquals(0, snapshot.getUnboundedSubscribers());
+    }
+
+    @Test
+    public void fluxWithOutstandingDemandTest() {
+        // given
+        // The items are delayed, so the requested items have to wait, which we can see as outstanding demand.
+
+        // when - then
+        StepVerifier.withVirtualTime(() -> Flux.just("Boba Fett", "Greedo", "Bossk")
+                .delayElements(Duration.ofSeconds(1))
+                .transform(PipelineMetrics.stage("headhunters")), 0)
+            .expectSubscription()
+            .thenRequest(3)
+            .then(() -> Assertions.assertEquals(3, PipelineMetrics.snapshot("headhunters").getOutstandingDemand()))
+            .thenAwait(Duration.ofSeconds(1))
+            .expectNext("Boba Fett")
+            .then(() -> Assertions.assertEquals(2, PipelineMetrics.snapshot("headhunters").getOutstandingDemand()))
+            .thenAwait(Duration.ofSeconds(2))
+            .expectNext("Greedo", "Bossk")
+            .verifyComplete();
+        Assertions.assertEquals(0, PipelineMetrics.snapshot("headhunters").getOutstandingDemand());
+    }
+
+    @Test
+    public void fluxWithDemandAddingUpToUnboundedTest() {
+        // given
+        // The two requests add up to Long.MAX_VALUE, which means unbounded demand, just like requesting it at once.
+
+        // when - then
+        StepVerifier.withVirtualTime(() -> Flux.just("Han Solo", "Lando Calrissian")
+                .delayElements(Duration.ofSeconds(1))
+                .transform(PipelineMetrics.stage("smugglers")), 0)
+            .expectSubscription()
+            .thenRequest(Long.MAX_VALUE - 1)
+            .thenRequest(1)
+            .then(() -> {
+                Assertions.assertEquals(1, PipelineMetrics.snapshot("smugglers").getUnboundedSubscribers());
+                Assertions.assertEquals(0, PipelineMetrics.snapshot("smugglers").getOutstandingDemand());
+            })
+            .thenAwait(Duration.ofSeconds(2))
+            .expectNext("Han Solo", "Lando Calrissian")
+            .verifyComplete();
+        Assertions.assertEquals(0, PipelineMetrics.snapshot("smugglers").getUnboundedSubscribers());
+    }
+
+    @Test
+    public void fluxWithDemandFromAnotherThreadTest() {
+        // given
+        // The clones arrive on another thread, while the test thread requests them, first in batches, then all of
+        // them, and finally cancels.
+        Flux<Integer> flux = Flux.range(1, 1_000_000)
+            .publishOn(Schedulers.parallel())
+            .transform(PipelineMetrics.stage("cancelledClones"));
+
+        // when - then
+        // Whichever thread gets there first, none of the demand is left behind.
+        for (int run = 0; run < 10; run++) {
+            BaseSubscriber<Integer> subscriber = new BaseSubscriber<>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                }
+            };
+            flux.subscribe(subscriber);
+            for (int batch = 0; batch < 100; batch++) {
+                subscriber.request(100);
+            }
+            subscriber.request(Long.MAX_VALUE);
+            subscriber.dispose();
+            AwaitUtil.awaitCondition("cancelledClones", () -> PipelineMetrics.snapshot("cancelledClones")
+                .getOutstandingDemand() == 0, Duration.ofSeconds(1));
+            Assertions.assertEquals(0, PipelineMetrics.snapshot("cancelledClones").getUnboundedSubscribers());
+        }
+    }
+
+    @Test
+    public void fluxWithQueueFillMetricsTest() {
+        // given
+        // The stage right after publishOn can see how many items are waiting in the queue of publishOn.
+        Flux<Integer> flux = Flux.range(1, 1000)
+            .publishOn(Schedulers.single())
+            .transform(PipelineMetrics.stage("clonesQueue"));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(1000)
+            .verifyComplete();
+        StageSnapshot snapshot = PipelineMetrics.snapshot("clonesQueue");
+        LOGGER.info("{}", snapshot);
+        Assertions.assertEquals(1000, snapshot.getQueueFill().getTotalCount());
+    }
+
+    @Test
+    public void fluxWithDisabledMetricsTest() {
+        // given
+        // When the metrics are disabled, the stages are not even part of the chain.
+        PipelineMetrics.setEnabled(false);
+        try {
+            Flux<Integer> flux = Flux.range(1, 5)
+                .transform(PipelineMetrics.stage("disabledClones"));
+
+            // when - then
+            StepVerifier.create(flux)
+                .expectNextCount(5)
+                .verifyComplete();
+            Assertions.assertNull(PipelineMetrics.snapshot("disabledClones"));
+        } finally {
+            PipelineMetrics.setEnabled(true);
+        }
+    }
+
+    // Helper method to convert a Tuple of 3 Strings to a Jedi description.
+    private String tupleToJedi(Tuple3<String, String, String> tuple) {
+        return tuple.getT2() + " " + tuple.getT1() + " with " + tuple.getT3() + " lightsaber";
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 15. Batched lookups
+ *
+ * In the flatMap examples, we looked up the items one by one. Against a real database, this means one round trip per
+ * item. With {@link BatchLookup}, we can collect the ids into batches and look them up with one bulk query.
+ */
+@IsolatedSchedulers
+public class FluxBatchLookupTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxBatchLookupTest.class);
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    @Test
+    public void fluxWithBatchLookupTest() {
+        // given
+        // All the ids fit into one batch, so we only have one round trip.
+        // The unknown id is skipped, just like the empty Mono of findHeroById in FluxMapTest.
+        Flux<String> flux = Flux.just("id_chew", "id_jarjar", "id_wick", "id_chew")
+            .log()
+            .transform(BatchLookup.of(10, Duration.ofMillis(100), this::findHeroesByIds));
+
+        // manual try
+        flux.subscribe(s -> LOGGER.info("Value = {}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        roundTrips.set(0);
+        StepVerifier.create(flux)
+            .expectNext("Chewbacca", "Wicket", "Chewbacca")
+            .verifyComplete();
+        Assertions.assertEquals(1, roundTrips.get());
+    }
+
+    @Test
+    public void fluxWithTimedBatchLookupTest() {
+        // given
+        // If the ids arrive slowly, a batch is closed after the max wait time, even if it is not full yet.
+        // Here, a batch is closed every 300 milliseconds, so we will have two round trips.
+
+        // when - then
+        roundTrips.set(0);
+        StepVerifier.withVirtualTime(() -> Flux.just("id_chew", "id_wick", "id_lando")
+                .delayElements(Duration.ofMillis(200))
+                .transform(BatchLookup.of(10, Duration.ofMillis(300), this::findHeroesByIds)))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(500))
+            .expectNext("Chewbacca")
+            .thenAwait(Duration.ofMillis(300))
+            .expectNext("Wicket", "Lando Calrissian")
+            .verifyComplete();
+        Assertions.assertEquals(2, roundTrips.get());
+    }
+
+    // Helper method to simulate a bulk DB operation.
+    private Mono<Map<String, String>> findHeroesByIds(List<String> ids) {
+        roundTrips.incrementAndGet();
+        Map<String, String> heroes = new HashMap<>();
+        for (String id : ids) {
+            if ("id_chew".equals(id)) {
+                heroes.put(id, "Chewbacca");
+            } else if ("id_wick".equals(id)) {
+                heroes.put(id, "Wicket");
+            } else if ("id_lando".equals(id)) {
+                heroes.put(id, "Lando Calrissian");
+            }
+        }
+        return Mono.just(heroes);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * 29. Checked exceptions without stack traces
+ *
+ * In {@link FluxCombineErrorHandlingTest}, the checked exception is wrapped with Exceptions.propagate to throw it from
+ * map, and a new exception with a full stack trace is created for every missing apprentice. With {@link CheckedMap},
+ * the checked exception is signalled as it is, and a missing item can be signalled with a reused, stackless exception.
+ */
+public class FluxCheckedMapTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxCheckedMapTest.class);
+
+    @Test
+    public void fluxWithCheckedMapTest() {
+        // given
+        Flux<String> flux = Flux.just("Qui-Gon Jinn")
+            .log()
+            .transform(CheckedMap.map(this::trainTheChosenOneBy));
+
+        // manual try
+        flux.subscribe(
+            s -> LOGGER.info("This will never happen"),
+            throwable -> LOGGER.error("Error: {}", throwable.getMessage())
+        );
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // It is the original exception, not just something wrapping it.
+        StepVerifier.create(flux)
+            .expectErrorSatisfies(throwable -> Assertions.assertEquals(TooOldException.class, throwable.getClass()))
+            .verify();
+    }
+
+    @Test
+    public void fluxWithStacklessNotFoundTest() {
+        // given
+        // The missing apprentices are skipped, and finding out that they are missing costs almost nothing.
+        Flux<String> flux = Flux.just("id_maul", "id_tyranus", "id_vader")
+            .flatMap(id -> Mono.just(id)
+                .transform(CheckedMap.mapMono(this::findApprenticeById))
+                .onErrorResume(CheckedMap.NotFoundException.class, e -> Mono.empty()));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNext("Darth Vader")
+            .verifyComplete();
+        Assertions.assertEquals(0, CheckedMap.NotFoundException.INSTANCE.getStackTrace().length);
+    }
+
+    // Helper method to simulate DB operation, where only Vader can be found.
+    private String findApprenticeById(String id) {
+        if ("id_vader".equals(id)) {
+            return "Darth Vader";
+        }
+        throw CheckedMap.NotFoundException.INSTANCE;
+    }
+
+    // Helper method to throw checked exception.
+    private String trainTheChosenOneBy(String name) throws TooOldException {
+        throw new TooOldException("The chosen one is too old");
+    }
+
+    // Helper checked exception.
+    private static class TooOldException extends Exception {
+        public TooOldException(String message) {
+            super(message);
+        }
+    }
+
+}
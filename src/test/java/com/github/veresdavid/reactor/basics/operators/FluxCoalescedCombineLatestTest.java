@@ -0,0 +1,128 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 24. Coalescing combineLatest
+ *
+ * In {@link FluxCombineTest}, combineLatest runs the combinator on every item of every source. With many sensors
+ * sending updates all the time, most of these combinations are replaced by the next one right away. With
+ * {@link CoalescedCombineLatest}, the updates are combined at most once per interval, and only if something changed.
+ */
+@IsolatedSchedulers
+public class FluxCoalescedCombineLatestTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxCoalescedCombineLatestTest.class);
+
+    private final AtomicInteger combinations = new AtomicInteger();
+
+    @Test
+    public void fluxWithCoalescedCombineLatestTest() {
+        // given
+        // The temperature changes from 20 to 22 in 30 ms, but with an interval of 50 ms, only the first and the last
+        // value gets combined, the repeated 21 is not even considered.
+        Flux<Integer> temperature = Flux.just(20, 21, 21, 22)
+            .delayElements(Duration.ofMillis(10));
+        Flux<Integer> humidity = Flux.just(40);
+        Flux<String> flux = CoalescedCombineLatest.combineLatest(Duration.ofMillis(50),
+            slots -> slots.get(0) + "°C " + slots.get(1) + "%", temperature.log(), humidity);
+
+        // manual try
+        AwaitUtil.awaitTermination("weather", flux, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(200));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // When all the sensors completed, the pending update is combined right away.
+        StepVerifier.withVirtualTime(() -> CoalescedCombineLatest.combineLatest(Duration.ofMillis(50),
+            slots -> slots.get(0) + "°C " + slots.get(1) + "%",
+            Flux.just(20, 21, 21, 22).delayElements(Duration.ofMillis(10)), Flux.just(40)))
+            .thenAwait(Duration.ofMillis(10))
+            .expectNext("20°C 40%")
+            .thenAwait(Duration.ofMillis(30))
+            .expectNext("22°C 40%")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithCoalescedBurstsTest() {
+        // given
+        // Each sensor ticks every 10 ms, but its value only changes every 30 ms.
+        int sensors = 20;
+        Flux<?>[] sources = new Flux<?>[sensors];
+
+        // when - then
+        // In one second, there are 2000 ticks, but only 10 combinations.
+        StepVerifier.withVirtualTime(() -> {
+            for (int i = 0; i < sensors; i++) {
+                sources[i] = Flux.interval(Duration.ofMillis(10))
+                    .map(tick -> tick / 3);
+            }
+            return CoalescedCombineLatest.combineLatest(Duration.ofMillis(100), Schedulers.parallel(),
+                this::average, sources)
+                .take(Duration.ofSeconds(1));
+        })
+            .thenAwait(Duration.ofSeconds(1))
+            .expectNextCount(10)
+            .verifyComplete();
+        LOGGER.info("Combinations: {}", combinations.get());
+        Assertions.assertEquals(10, combinations.get());
+    }
+
+    @Test
+    public void fluxWithFailingCombinatorTest() {
+        // given
+        // The combinator breaks the second sensor, then fails itself. Only the first error is passed on, the second
+        // one goes to the onErrorDropped hook, instead of getting lost.
+        List<Throwable> dropped = new CopyOnWriteArrayList<>();
+        Hooks.onErrorDropped(dropped::add);
+        try {
+            Sinks.Many<Integer> first = Sinks.many().multicast().onBackpressureBuffer();
+            Sinks.Many<Integer> second = Sinks.many().multicast().onBackpressureBuffer();
+            Flux<Integer> flux = CoalescedCombineLatest.combineLatest(Duration.ZERO, slots -> {
+                second.tryEmitError(new IllegalStateException("Sensor destroyed by an ion cannon"));
+                throw new IllegalArgumentException("Combinator destroyed by an ion cannon");
+            }, first.asFlux(), second.asFlux());
+
+            // when - then
+            StepVerifier.create(flux)
+                .then(() -> {
+                    second.tryEmitNext(1);
+                    first.tryEmitNext(1);
+                })
+                .expectErrorMessage("Sensor destroyed by an ion cannon")
+                .verify();
+            Assertions.assertEquals(1, dropped.size());
+            Assertions.assertEquals("Combinator destroyed by an ion cannon", dropped.get(0).getMessage());
+        } finally {
+            Hooks.resetOnErrorDropped();
+        }
+    }
+
+    // Helper method to combine the sensor values.
+    private double average(CoalescedCombineLatest.Slots slots) {
+        combinations.incrementAndGet();
+        long sum = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            sum += slots.<Long>get(i);
+        }
+        return (double) sum / slots.size();
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * 23. Zipping into columns
+ *
+ * In {@link FluxCombineTest}, the zipped items arrive as Tuples, which we map to Jedi objects, so each row costs an
+ * array and a Tuple before we even create the object we need. With {@link ColumnarZip}, the items are collected into
+ * reusable arrays, one per source, and the Jedi is created straight from them.
+ */
+public class FluxColumnarZipTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxColumnarZipTest.class);
+
+    @Test
+    public void fluxWithColumnarZipTest() {
+        // given
+        // The combinator gets the columns and the index of the row, and picks the items of the row by the index of
+        // their source.
+        Flux<String> name = Flux.just("Luminara Unduli", "Bariss Offee");
+        Flux<String> rank = Flux.just("Master", "Padawan");
+        Flux<String> saberColor = Flux.just("green", "blue");
+        Flux<Jedi> flux = ColumnarZip.zip(
+            (columns, row) -> new Jedi(columns.get(0, row), columns.get(1, row), columns.get(2, row)),
+            name.log(), rank, saberColor);
+
+        // manual try
+        flux.subscribe(jedi -> LOGGER.info("{}", jedi));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextMatches(jedi -> "Luminara Unduli".equals(jedi.name) && "green".equals(jedi.saberColor))
+            .expectNextMatches(jedi -> "Bariss Offee".equals(jedi.name) && "Padawan".equals(jedi.rank))
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithColumnarZipInBatchesTest() {
+        // given
+        // Just like zip, it completes with the shortest source. With a batch size of 2, the sources are requested 2
+        // items at a time, and the arrays are reused for each batch.
+        Flux<Integer> clones = Flux.range(1, 5)
+            .log();
+        Flux<Integer> squads = Flux.range(100, 10);
+        Flux<String> flux = ColumnarZip.zip(2, (columns, row) -> "CT-" + columns.get(1, row) + columns.get(0, row),
+            clones, squads);
+
+        // when - then
+        // The rows are combined only when there is demand for them.
+        StepVerifier.create(flux, 1)
+            .expectNext("CT-1001")
+            .thenRequest(3)
+            .expectNext("CT-1012", "CT-1023", "CT-1034")
+            .thenRequest(10)
+            .expectNext("CT-1045")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithColumnarZipErrorTest() {
+        // given
+        Flux<String> name = Flux.just("Ahsoka Tano", "Barriss Offee");
+        Flux<String> rank = Flux.concat(Flux.just("Padawan"), Flux.error(new RuntimeException("Order 66")));
+        Flux<String> flux = ColumnarZip.zip((columns, row) -> columns.get(1, row) + " " + columns.get(0, row),
+            name, rank);
+
+        // when - then
+        // An error of any of the sources is passed on right away, the rows after it are never combined.
+        StepVerifier.create(flux)
+            .expectNext("Padawan Ahsoka Tano")
+            .expectErrorMessage("Order 66")
+            .verify();
+    }
+
+    // Helper class to represent a jedi.
+    // For simplicity, it only contains the necessary methods.
+    private static class Jedi {
+        private final String name;
+        private final String rank;
+        private final String saberColor;
+
+        public Jedi(String name, String rank, String saberColor) {
+            this.name = name;
+            this.rank = rank;
+            this.saberColor = saberColor;
+        }
+
+        @Override
+        public String toString() {
+            return "Jedi{" +
+                "name='" + name + '\'' +
+                ", rank='" + rank + '\'' +
+                ", saberColor='" + saberColor + '\'' +
+                '}';
+        }
+    }
+
+}
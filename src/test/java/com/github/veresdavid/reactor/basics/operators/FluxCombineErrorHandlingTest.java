@@ -1,5 +1,6 @@
 package com.github.veresdavid.reactor.basics.operators;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -49,7 +50,7 @@ public class FluxCombineErrorHandlingTest {
     }
 
     @Test
-    public void fluxWithMergeDelayErrorTest() throws InterruptedException {
+    public void fluxWithMergeDelayErrorTest() {
         // given
         // Like with concat, we also have the option to delay errors in case of the merge operator as well.
         // Here, we delay the emission of Plo Koon, so the error from the first Flux will be emitted faster, but as
@@ -61,9 +62,7 @@ public class FluxCombineErrorHandlingTest {
             .log();
 
         // manual try
-        flux.subscribe(o -> LOGGER.info("Value = {}", o));
-
-        Thread.sleep(500);
+        AwaitUtil.awaitTermination("masters", flux, o -> LOGGER.info("Value = {}", o), Duration.ofMillis(500));
 
         TestUtil.logSeparatorLine();
 
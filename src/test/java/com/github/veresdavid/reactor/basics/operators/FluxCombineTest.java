@@ -1,5 +1,6 @@
 package com.github.veresdavid.reactor.basics.operators;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -42,7 +43,7 @@ public class FluxCombineTest {
     }
 
     @Test
-    public void fluxWithCombineLatestTest() throws InterruptedException {
+    public void fluxWithCombineLatestTest() {
         // given
         // As it's name says, we can use combineLatest to combine the most recent items of 2 or more Fluxes.
         // When an item is emitted from one of the sources, and there is also an item from the other(s), we call the
@@ -56,9 +57,7 @@ public class FluxCombineTest {
             .log();
 
         // manual try
-        flux.subscribe(s -> LOGGER.info("Value = {}", s));
-
-        Thread.sleep(500);
+        AwaitUtil.awaitTermination("combineLatest", flux, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(500));
 
         TestUtil.logSeparatorLine();
 
@@ -69,7 +68,7 @@ public class FluxCombineTest {
     }
 
     @Test
-    public void fluxWithMergeTest() throws InterruptedException {
+    public void fluxWithMergeTest() {
         // given
         // Unlike the concat operator, merge will eagerly get items from the given sources.
         // In this example, we put a short delay on the first source, then merge it with the second source, which is
@@ -82,9 +81,7 @@ public class FluxCombineTest {
             .log();
 
         // manual try
-        flux.subscribe(s -> LOGGER.info("{}", s));
-
-        Thread.sleep(500);
+        AwaitUtil.awaitTermination("merge", flux, s -> LOGGER.info("{}", s), Duration.ofMillis(500));
 
         TestUtil.logSeparatorLine();
 
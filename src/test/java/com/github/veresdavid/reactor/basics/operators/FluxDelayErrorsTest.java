@@ -0,0 +1,83 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 28. Delaying errors with limits
+ *
+ * In {@link FluxCombineErrorHandlingTest}, mergeDelayError and concatDelayError keep every error until all the
+ * sources terminate. With {@link DelayErrors}, only the first few errors are kept and the rest are just counted, and
+ * a circuit breaker can stop the whole thing once too many of the sources fail.
+ */
+public class FluxDelayErrorsTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxDelayErrorsTest.class);
+
+    @Test
+    public void fluxWithBoundedDelayErrorTest() {
+        // given
+        // A hundred searches fail in different ways, but only the first 3 errors are kept.
+        Flux<Flux<String>> searches = Flux.range(1, 100)
+            .map(i -> i % 4 == 0
+                ? Flux.<String>error(new TimeoutException("Search " + i + " timed out"))
+                : Flux.<String>error(new RuntimeException("Master not found by search " + i)));
+        Flux<String> flux = DelayErrors.builder()
+            .maxErrors(3)
+            .build()
+            .merge(searches.startWith(Flux.just(Flux.just("Plo Koon"))), 8);
+
+        // manual try
+        flux.subscribe(
+            s -> LOGGER.info("Value = {}", s),
+            throwable -> LOGGER.error("Something went wrong: {}", throwable.getMessage())
+        );
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNext("Plo Koon")
+            .expectErrorSatisfies(throwable -> {
+                DelayErrors.AggregatedException errors = (DelayErrors.AggregatedException) throwable;
+                Assertions.assertEquals(100, errors.getErrorCount());
+                Assertions.assertEquals(101, errors.getSourceCount());
+                Assertions.assertEquals(3, errors.getErrors().size());
+                Assertions.assertEquals(75, errors.getCountsByType().get(RuntimeException.class));
+                Assertions.assertEquals(25, errors.getCountsByType().get(TimeoutException.class));
+            })
+            .verify();
+    }
+
+    @Test
+    public void fluxWithCircuitBreakerTest() {
+        // given
+        // Once half of at least 4 searches failed, the rest of them are not even started.
+        AtomicBoolean lastSearchStarted = new AtomicBoolean();
+        Flux<String> flux = DelayErrors.builder()
+            .circuitBreaker(0.5, 4)
+            .build()
+            .concat(
+                Flux.just("Plo Koon"),
+                Flux.just("Kit Fisto"),
+                Flux.error(new RuntimeException("Master not found")),
+                Flux.error(new RuntimeException("Master not found")),
+                Flux.just("Shaak Ti").doOnSubscribe(subscription -> lastSearchStarted.set(true)));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNext("Plo Koon", "Kit Fisto")
+            .expectError(DelayErrors.CircuitOpenException.class)
+            .verify();
+        Assertions.assertFalse(lastSearchStarted.get());
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 27. Keyed flatMap
+ *
+ * In {@link FluxMapTest}, flatMap does not keep the order of the items, while flatMapSequential keeps the order of
+ * all of them. With {@link KeyedFlatMap}, only the items with the same key keep their order, so the items of
+ * different keys do not have to wait for each other.
+ */
+public class FluxKeyedFlatMapTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxKeyedFlatMapTest.class);
+
+    @Test
+    public void fluxWithKeyedFlatMapTest() {
+        // given
+        // The first orders of each droid take the longest to execute, so with flatMap, they would be the last ones.
+        Flux<Order> orders = Flux.range(1, 4)
+            .flatMapIterable(number -> List.of(
+                new Order("R2-D2", number), new Order("C-3PO", number), new Order("BB-8", number)));
+        Flux<Order> flux = orders
+            .log()
+            .transform(KeyedFlatMap.flatMap(2, Schedulers.parallel(), Order::getDroid, this::execute));
+
+        // manual try
+        AwaitUtil.awaitTermination("orders", flux, order -> LOGGER.info("Executed = {}", order),
+            Duration.ofMillis(500));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // The orders of the droids are mixed, but the orders of each droid are executed in the order they were given.
+        StepVerifier.create(flux)
+            .recordWith(ArrayList::new)
+            .expectNextCount(12)
+            .consumeRecordedWith(executed -> {
+                Map<String, List<Integer>> numbersByDroid = executed.stream()
+                    .collect(Collectors.groupingBy(Order::getDroid,
+                        Collectors.mapping(Order::getNumber, Collectors.toList())));
+                Assertions.assertEquals(3, numbersByDroid.size());
+                numbersByDroid.values()
+                    .forEach(numbers -> Assertions.assertEquals(List.of(1, 2, 3, 4), numbers));
+            })
+            .verifyComplete();
+    }
+
+    // Helper method to simulate the execution of an order, where the earlier orders take longer.
+    private Mono<Order> execute(Order order) {
+        return Mono.just(order)
+            .delayElement(Duration.ofMillis(10L * (5 - order.getNumber())));
+    }
+
+    // Helper class to represent an order given to a droid.
+    // For simplicity, it only contains the necessary methods.
+    private static class Order {
+        private final String droid;
+        private final int number;
+
+        public Order(String droid, int number) {
+            this.droid = droid;
+            this.number = number;
+        }
+
+        public String getDroid() {
+            return droid;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        @Override
+        public String toString() {
+            return "Order{" +
+                "droid='" + droid + '\'' +
+                ", number=" + number +
+                '}';
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.github.veresdavid.reactor.basics.operators;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -61,7 +62,7 @@ public class FluxMapTest {
     }
 
     @Test
-    public void fluxWithFlatMapSequentialTest() throws InterruptedException {
+    public void fluxWithFlatMapSequentialTest() {
         // given
         // The flatMapSequential will guarantee that the order of the items will stay the same after performing the
         // flat mapping.
@@ -72,9 +73,7 @@ public class FluxMapTest {
             .flatMapSequential(this::findShipById);
 
         // manual try
-        flux.subscribe(s -> LOGGER.info("Value = {}", s));
-
-        Thread.sleep(500);
+        AwaitUtil.awaitTermination("ships", flux, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(500));
 
         TestUtil.logSeparatorLine();
 
@@ -0,0 +1,169 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 26. Bounded ordered flatMap
+ *
+ * In {@link FluxMapTest}, flatMapSequential holds back the Millenium Falcon until the Imperial Star Destroyer arrives.
+ * With {@link OrderedFlatMap}, the number of items held back like this is limited, the upstream is not requested
+ * while the limit is reached, and the time the items spend waiting is recorded.
+ */
+@IsolatedSchedulers
+public class FluxOrderedFlatMapTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxOrderedFlatMapTest.class);
+
+    @Test
+    public void fluxWithOrderedFlatMapTest() {
+        // given
+        OrderedFlatMap orderedFlatMap = OrderedFlatMap.builder()
+            .build();
+        Flux<String> flux = Flux.just("id_sdes", "id_mfal")
+            .log()
+            .transform(orderedFlatMap.flatMap(this::findShipById));
+
+        // manual try
+        AwaitUtil.awaitTermination("ships", flux, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(500));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNext("Imperial Star Destroyer", "Millenium Falcon")
+            .verifyComplete();
+
+        // The Millenium Falcon was ready right away, but it had to wait for the Imperial Star Destroyer, twice.
+        Histogram headOfLineBlocking = orderedFlatMap.headOfLineBlocking();
+        LOGGER.info("Head-of-line blocking: max = {} ms", headOfLineBlocking.getMaxValue() / 1_000_000);
+        Assertions.assertEquals(2, headOfLineBlocking.getTotalCount());
+        Assertions.assertTrue(headOfLineBlocking.getMaxValue() >= Duration.ofMillis(150).toNanos());
+    }
+
+    @Test
+    public void fluxWithBoundedReorderBufferTest() {
+        // given
+        // The first ship is stuck in hyperspace for a second, while the rest arrive right away. Only 4 of them can
+        // wait behind it, and at most 8 ships are looked up at the same time.
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicInteger arrived = new AtomicInteger();
+        OrderedFlatMap orderedFlatMap = OrderedFlatMap.builder()
+            .maxConcurrency(8)
+            .maxBufferedItems(4)
+            .prefetch(2)
+            .build();
+
+        // when - then
+        StepVerifier.withVirtualTime(() -> Flux.range(1, 100)
+            .doOnNext(id -> lookups.incrementAndGet())
+            .transform(orderedFlatMap.flatMap(id -> id == 1
+                ? Mono.delay(Duration.ofSeconds(1)).map(tick -> id)
+                : Flux.just(id, -id).doOnNext(ship -> arrived.incrementAndGet()))))
+            .thenAwait(Duration.ofMillis(500))
+            .then(() -> {
+                LOGGER.info("Lookups = {}, arrived = {}", lookups.get(), arrived.get());
+                Assertions.assertEquals(8, lookups.get());
+                Assertions.assertEquals(4, arrived.get());
+            })
+            .thenAwait(Duration.ofMillis(500))
+            .expectNext(1)
+            .expectNext(2, -2, 3, -3)
+            .expectNextCount(194)
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithScalarAndAsyncInnersTest() {
+        // given
+        // Every second ship is known right away, the others are looked up on another thread, so the known ships keep
+        // arriving while the looked up ones are passed on, and the downstream requests them one by one.
+        OrderedFlatMap orderedFlatMap = OrderedFlatMap.builder()
+            .maxBufferedItems(2)
+            .build();
+        Flux<Integer> flux = Flux.range(0, 50_000)
+            .subscribeOn(Schedulers.boundedElastic())
+            .transform(orderedFlatMap.flatMap(id -> id % 2 == 0
+                ? Mono.just(id).publishOn(Schedulers.parallel())
+                : Mono.just(id)))
+            .publishOn(Schedulers.single(), 1);
+
+        // when - then
+        // Several fleets are looked up at the same time, each of their ships arrives in order, and none of them gets
+        // stuck.
+        StepVerifier.create(Flux.range(0, 16)
+                .flatMap(fleet -> flux.index()
+                    .all(ship -> ship.getT1() == (long) ship.getT2())))
+            .expectNextSequence(Collections.nCopies(16, true))
+            .expectComplete()
+            .verify(Duration.ofSeconds(60));
+    }
+
+    @Test
+    public void fluxWithInnerTimeoutTest() {
+        // when - then
+        // The Imperial Star Destroyer takes too long, so the lookup fails, instead of holding back the others.
+        StepVerifier.withVirtualTime(() -> Flux.just("id_sdes", "id_mfal")
+            .transform(OrderedFlatMap.builder()
+                .innerTimeout(Duration.ofMillis(100))
+                .build()
+                .flatMap(this::findShipById)))
+            .thenAwait(Duration.ofMillis(100))
+            .expectError(TimeoutException.class)
+            .verify();
+    }
+
+    @Test
+    public void fluxWithInnerTimeoutWhileWaitingTest() {
+        // when - then
+        // Each ship takes 80 ms once it is requested. Only one ship can wait in the buffer, so the last one is only
+        // requested after 80 ms, when the first one arrives. The timeout starts when a ship is requested, not when it
+        // is subscribed, so none of them time out.
+        StepVerifier.withVirtualTime(() -> Flux.just("Ghost", "Razor Crest", "Tantive IV")
+            .transform(OrderedFlatMap.builder()
+                .maxBufferedItems(1)
+                .innerTimeout(Duration.ofMillis(100))
+                .build()
+                .flatMap(this::arriveWhenRequested)))
+            .thenAwait(Duration.ofMillis(160))
+            .expectNext("Ghost", "Razor Crest", "Tantive IV")
+            .verifyComplete();
+    }
+
+    // Helper method to simulate a ship which only sets off when it is requested, and arrives 80 ms later.
+    private Mono<String> arriveWhenRequested(String ship) {
+        return Mono.create(sink -> sink.onRequest(n -> sink.onDispose(Schedulers.parallel()
+            .schedule(() -> sink.success(ship), 80, TimeUnit.MILLISECONDS))));
+    }
+
+    // Helper method to simulate DB operation, with a short delay on one of the items.
+    private Mono<String> findShipById(String id) {
+        Mono<String> ship = Mono.empty();
+
+        if ("id_mfal".equals(id)) {
+            ship = Mono.just("Millenium Falcon");
+        } else if ("id_sdes".equals(id)) {
+            ship = Mono.just("Imperial Star Destroyer")
+                .delayElement(Duration.ofMillis(200));
+        }
+
+        return ship;
+    }
+
+}
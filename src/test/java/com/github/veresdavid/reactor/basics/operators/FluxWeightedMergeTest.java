@@ -0,0 +1,72 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * 25. Priority merge
+ *
+ * In {@link FluxCombineTest}, merge passes on the items in whatever order they arrive, so an urgent item can wait
+ * behind any number of others. With {@link WeightedMerge}, the items of the sources with a higher priority are always
+ * taken first, and the sources with the same priority share the demand by their weight.
+ */
+public class FluxWeightedMergeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FluxWeightedMergeTest.class);
+
+    @Test
+    public void fluxWithPriorityMergeTest() {
+        // given
+        // The clones keep marching, but the order of the Chancellor has a higher priority.
+        Flux<String> clones = Flux.range(1, 5)
+            .map(i -> "Clone " + i);
+        Flux<String> orders = Flux.just("Execute Order 66");
+        Flux<String> flux = WeightedMerge.<String>builder()
+            .source(clones.log(), 0, 1)
+            .source(orders, 1, 1)
+            .build();
+
+        // manual try
+        flux.subscribe(s -> LOGGER.info("Value = {}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // Both sources are subscribed first, and when the demand arrives, the order is taken first, even if the
+        // clones were subscribed earlier.
+        StepVerifier.create(flux, 0)
+            .thenRequest(3)
+            .expectNext("Execute Order 66", "Clone 1", "Clone 2")
+            .thenRequest(3)
+            .expectNext("Clone 3", "Clone 4", "Clone 5")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithWeightedMergeTest() {
+        // given
+        // The 501st has three times the weight of the 212th, so it gets three items for each item of the 212th.
+        Flux<String> legion501 = Flux.range(1, 8)
+            .map(i -> "501st " + i);
+        Flux<String> battalion212 = Flux.range(1, 8)
+            .map(i -> "212th " + i);
+        Flux<String> flux = WeightedMerge.<String>builder()
+            .source(legion501, 3)
+            .source(battalion212, 1)
+            .build();
+
+        // when - then
+        // Once the 501st runs out of items, the 212th gets all the demand.
+        StepVerifier.create(flux, 0)
+            .thenRequest(8)
+            .expectNext("501st 1", "501st 2", "501st 3", "212th 1", "501st 4", "501st 5", "501st 6", "212th 2")
+            .thenRequest(Long.MAX_VALUE)
+            .expectNext("501st 7", "501st 8", "212th 3", "212th 4", "212th 5", "212th 6", "212th 7", "212th 8")
+            .verifyComplete();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 16. Caching lookups
+ *
+ * Each call of {@code findShipById} creates a new delayed {@link Mono}, so duplicated ids pay the delay again and
+ * again. With {@link MonoCache}, we can cache the results, and concurrent subscribers for the same id share one load.
+ */
+public class MonoCacheTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonoCacheTest.class);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void monoCacheWithDuplicatedIdsTest() {
+        // given
+        MonoCache<String, String> cache = MonoCache.builder(this::findShipById)
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+        Flux<String> flux = Flux.just("id_sdes", "id_mfal", "id_sdes", "id_sdes")
+            .log()
+            .flatMapSequential(cache::get);
+
+        // manual try
+        flux.subscribe(s -> LOGGER.info("Value = {}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // The manual try above already started loading both ships, so this time we only wait for the same loads.
+        StepVerifier.create(flux)
+            .expectNext("Imperial Star Destroyer", "Millenium Falcon")
+            .expectNext("Imperial Star Destroyer", "Imperial Star Destroyer")
+            .verifyComplete();
+        Assertions.assertEquals(2, loads.get());
+        LOGGER.info("{}", cache.stats());
+    }
+
+    @Test
+    public void monoCacheWithConcurrentSubscribersTest() {
+        // given
+        // Many subscribers ask for the same ship at the same time, from different threads.
+        MonoCache<String, String> cache = MonoCache.builder(this::findShipById)
+            .build();
+        Flux<String> flux = Flux.range(0, 8)
+            .parallel()
+            .runOn(Schedulers.boundedElastic())
+            .flatMap(i -> cache.get("id_sdes"))
+            .sequential();
+
+        // when - then
+        // The ship is only loaded once, all the other subscribers wait for the same load.
+        StepVerifier.create(flux)
+            .expectNextCount(8)
+            .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, cache.stats().missCount());
+        Assertions.assertEquals(7, cache.stats().hitCount());
+    }
+
+    @Test
+    public void monoCacheWithEmptyResultTest() {
+        // given
+        // By default empty results are not cached, but for ids which are surely missing, we can cache them as well.
+        MonoCache<String, String> cache = MonoCache.builder(this::findShipById)
+            .cacheEmpty(true)
+            .build();
+        Mono<String> mono = cache.get("id_ebon");
+
+        // when - then
+        StepVerifier.create(mono)
+            .verifyComplete();
+        StepVerifier.create(mono)
+            .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    // Helper method to simulate DB operation, with a short delay on one of the items.
+    private Mono<String> findShipById(String id) {
+        loads.incrementAndGet();
+        Mono<String> ship = Mono.empty();
+
+        if ("id_mfal".equals(id)) {
+            ship = Mono.just("Millenium Falcon");
+        } else if ("id_sdes".equals(id)) {
+            ship = Mono.just("Imperial Star Destroyer")
+                .delayElement(Duration.ofMillis(200));
+        }
+
+        return ship;
+    }
+
+}
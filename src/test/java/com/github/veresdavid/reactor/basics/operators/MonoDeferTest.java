@@ -1,10 +1,13 @@
 package com.github.veresdavid.reactor.basics.operators;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 /**
  * 13. Mono with defer
  *
@@ -15,7 +18,7 @@ public class MonoDeferTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(MonoDeferTest.class);
 
     @Test
-    public void monoWithDeferTest() throws InterruptedException {
+    public void monoWithDeferTest() {
         // given
         // The operator defer will provide a new Mono each time we subscribe.
         // In this example, it means that we will see different timestamps on the output.
@@ -23,14 +26,20 @@ public class MonoDeferTest {
         Mono<Long> mono = Mono.defer(() -> Mono.just(System.currentTimeMillis()));
 
         // manual try
+        // Between the subscriptions, we only wait until the clock ticks, so the timestamps are different.
         mono.subscribe(aLong -> LOGGER.info("Value = {}", aLong));
-        Thread.sleep(500);
+        awaitNextMillisecond();
         mono.subscribe(aLong -> LOGGER.info("Value = {}", aLong));
-        Thread.sleep(500);
+        awaitNextMillisecond();
         mono.subscribe(aLong -> LOGGER.info("Value = {}", aLong));
 
         // when - then
         // No tests for this time, only manual try.
     }
 
+    private void awaitNextMillisecond() {
+        long now = System.currentTimeMillis();
+        AwaitUtil.awaitCondition("next millisecond", () -> System.currentTimeMillis() > now, Duration.ofMillis(100));
+    }
+
 }
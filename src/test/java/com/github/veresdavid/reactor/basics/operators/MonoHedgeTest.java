@@ -0,0 +1,106 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.mono.MonoOperatorTest;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 32. Hedged requests
+ *
+ * In {@link FluxFallbackTest} and {@link MonoOperatorTest}, we only get the fallback once the original source finished
+ * empty or with an error. With {@link Hedge}, the fallback also starts if the original source is too slow, and we get
+ * whichever is faster.
+ * The sources are delayed on a VirtualTimeScheduler, which also provides the time for {@link Hedge}.
+ */
+public class MonoHedgeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonoHedgeTest.class);
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+
+    @Test
+    public void monoWithHedgedFallbackTest() {
+        // given
+        // The Jedi Archives usually answer quickly, but this time, they take a second. After 200 milliseconds, we also
+        // ask the Holocron, which answers in 100 milliseconds.
+        Hedge hedge = Hedge.builder()
+            .initialDelay(Duration.ofMillis(200))
+            .scheduler(scheduler)
+            .build();
+        AtomicBoolean archivesCancelled = new AtomicBoolean();
+        Mono<String> mono = askArchives(Duration.ofSeconds(1))
+            .doOnCancel(() -> archivesCancelled.set(true))
+            .log()
+            .transform(hedge.withFallback(askHolocron()));
+
+        // manual try
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+        scheduler.advanceTimeBy(Duration.ofMillis(300));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // The answer of the Holocron arrives at 300 milliseconds, and the archives are not waited for.
+        StepVerifier.create(mono)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(299)))
+            .expectNoEvent(Duration.ZERO)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(1)))
+            .expectNext("Kamino (Holocron)")
+            .verifyComplete();
+        Assertions.assertTrue(archivesCancelled.get());
+        Assertions.assertEquals(2, hedge.getHedged());
+    }
+
+    @Test
+    public void monoWithLearnedHedgeDelayTest() {
+        // given
+        // After a window of 10 requests, the hedge delay is the 90th percentile of their latency. Until then, we don't
+        // hedge for a second.
+        Hedge hedge = Hedge.builder()
+            .initialDelay(Duration.ofSeconds(1))
+            .percentile(90)
+            .window(10)
+            .scheduler(scheduler)
+            .build();
+        for (int i = 1; i <= 10; i++) {
+            StepVerifier.create(askArchives(Duration.ofMillis(i * 10)).transform(hedge.withFallback(askHolocron())))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .expectNext("Kamino (Archives)")
+                .verifyComplete();
+        }
+
+        // when - then
+        Assertions.assertEquals(90, hedge.getHedgeDelay().toMillis(), 1);
+        Assertions.assertEquals(0, hedge.getHedged());
+
+        // Like with onErrorResume, when the archives fail, we ask the Holocron right away.
+        StepVerifier.create(Mono.<String>error(new IllegalStateException("Archives deleted"))
+                .transform(hedge.withFallback(askHolocron())))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+            .expectNext("Kamino (Holocron)")
+            .verifyComplete();
+        Assertions.assertEquals(0, hedge.getHedged());
+    }
+
+    // Helper method to simulate the Jedi Archives, which answer with the given delay.
+    private Mono<String> askArchives(Duration delay) {
+        return Mono.delay(delay, scheduler)
+            .map(ignored -> "Kamino (Archives)");
+    }
+
+    // Helper method to simulate the Holocron, which answers in 100 milliseconds.
+    private Mono<String> askHolocron() {
+        return Mono.delay(Duration.ofMillis(100), scheduler)
+            .map(ignored -> "Kamino (Holocron)");
+    }
+
+}
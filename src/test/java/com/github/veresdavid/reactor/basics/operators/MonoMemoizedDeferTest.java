@@ -0,0 +1,117 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 31. Memoizing defer
+ *
+ * In {@link MonoDeferTest}, defer calls the supplier for every subscription, which is what we want for timestamps.
+ * When the supplier is expensive, like fetching an access token, {@link MemoizedDefer} keeps the value for a while,
+ * and refreshes it in the background before it expires.
+ * The token service is delayed on a VirtualTimeScheduler, which also provides the time for {@link MemoizedDefer}, so
+ * we don't have to wait for the TTL to pass.
+ */
+public class MonoMemoizedDeferTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonoMemoizedDeferTest.class);
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicBoolean councilAvailable = new AtomicBoolean(true);
+
+    @Test
+    public void monoWithMemoizedDeferTest() {
+        // given
+        MemoizedDefer<String> token = MemoizedDefer.builder(this::fetchCouncilToken)
+            .ttl(Duration.ofMinutes(10))
+            .scheduler(scheduler)
+            .build();
+        Mono<String> mono = token.get()
+            .log();
+
+        // manual try
+        // The 3 subscribers share the same fetch, which takes 1 second.
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        // Within the TTL, we get the token right away.
+        StepVerifier.create(mono)
+            .expectNext("token-1")
+            .verifyComplete();
+        Assertions.assertEquals(1, fetches.get());
+
+        // After the TTL, we have to wait for a new fetch.
+        scheduler.advanceTimeBy(Duration.ofMinutes(10));
+        StepVerifier.create(mono)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofSeconds(1)))
+            .expectNext("token-2")
+            .verifyComplete();
+        Assertions.assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void monoWithRefreshAheadAndStaleTokenTest() {
+        // given
+        MemoizedDefer<String> token = MemoizedDefer.builder(this::fetchCouncilToken)
+            .ttl(Duration.ofMinutes(10))
+            .refreshAhead(Duration.ofMinutes(2))
+            .maxStale(Duration.ofMinutes(5))
+            .scheduler(scheduler)
+            .build();
+        Mono<String> mono = token.get();
+        mono.subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        // when - then
+        // 9 minutes later, the token is about to expire: we still get the old one right away, but it is refreshed in
+        // the background.
+        scheduler.advanceTimeBy(Duration.ofMinutes(9));
+        StepVerifier.create(mono)
+            .expectNext("token-1")
+            .verifyComplete();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        StepVerifier.create(mono)
+            .expectNext("token-2")
+            .verifyComplete();
+
+        // The council is not available when the token expires, so we keep using the stale token for a while.
+        councilAvailable.set(false);
+        scheduler.advanceTimeBy(Duration.ofMinutes(11));
+        StepVerifier.create(mono)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofSeconds(1)))
+            .expectNext("token-2")
+            .verifyComplete();
+
+        // Once the stale token is too old, we get the error.
+        scheduler.advanceTimeBy(Duration.ofMinutes(5));
+        StepVerifier.create(mono)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofSeconds(1)))
+            .expectErrorMessage("The council is not in session")
+            .verify();
+    }
+
+    // Helper method to simulate an external service, which takes 1 second to respond with a new token.
+    private Mono<String> fetchCouncilToken() {
+        return Mono.delay(Duration.ofSeconds(1), scheduler)
+            .flatMap(ignored -> councilAvailable.get()
+                ? Mono.just("token-" + fetches.incrementAndGet())
+                : Mono.error(new IllegalStateException("The council is not in session")));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.github.veresdavid.reactor.basics.operators;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 17. Blocking IO with adaptive concurrency
+ *
+ * In {@link MonoWithBlockingIoTest}, the blocking call runs on the boundedElastic
+ * {@link reactor.core.scheduler.Scheduler}, which knows nothing about how many calls the called service can take. With
+ * {@link BlockingBridge}, the number of concurrent calls adapts to the latency of the service, and the excess calls
+ * wait in a bounded queue.
+ */
+public class MonoWithAdaptiveBlockingIoTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonoWithAdaptiveBlockingIoTest.class);
+
+    private final AtomicInteger concurrentCalls = new AtomicInteger();
+    private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+    private BlockingBridge bridge;
+
+    @AfterEach
+    public void tearDown() {
+        bridge.dispose();
+    }
+
+    @Test
+    public void monoWithBlockingBridgeTest() {
+        // given
+        bridge = BlockingBridge.builder()
+            .build();
+        Mono<String> mono = bridge.call(this::callEmperorService)
+            .log();
+
+        // manual try
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(mono)
+            .expectNext("Darth Sidious")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithBlockingBridgeBackpressureTest() {
+        // given
+        // With mapBlocking, the items are only requested when the bridge has room for them, so no call is rejected,
+        // even without a queue. The emperor responds quickly, so the concurrency grows from 1 up to the max limit, but
+        // never above it.
+        bridge = BlockingBridge.builder()
+            .limits(1, 1, 3)
+            .maxQueueSize(0)
+            .build();
+        Flux<String> flux = Flux.range(1, 20)
+            .log()
+            .transform(bridge.mapBlocking(i -> this::callEmperorService));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(20)
+            .verifyComplete();
+        Assertions.assertEquals(3, maxConcurrentCalls.get());
+        Assertions.assertEquals(3, bridge.limit());
+    }
+
+    @Test
+    public void monoWithSaturatedBlockingBridgeTest() {
+        // given
+        // One call runs, one waits in the queue and the third one is rejected, instead of starting a new thread.
+        bridge = BlockingBridge.builder()
+            .limits(1, 1, 1)
+            .maxQueueSize(1)
+            .build();
+        Flux<String> flux = Flux.merge(
+            bridge.call(this::callEmperorService),
+            bridge.call(this::callEmperorService),
+            bridge.call(this::callEmperorService)
+        );
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectError(RejectedExecutionException.class)
+            .verify();
+    }
+
+    @Test
+    public void monoWithSlowServiceTest() {
+        // given
+        // The emperor responds slower than our target latency, so the bridge backs off to the min limit.
+        bridge = BlockingBridge.builder()
+            .limits(1, 8, 8)
+            .targetLatency(Duration.ofMillis(10))
+            .backoffRatio(0.5)
+            .build();
+        Flux<String> flux = Flux.range(1, 8)
+            .transform(bridge.mapBlocking(i -> this::callEmperorService));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(8)
+            .verifyComplete();
+        Assertions.assertEquals(1, bridge.limit());
+    }
+
+    // Helper method for simulating an external service call.
+    private String callEmperorService() throws InterruptedException {
+        int calls = concurrentCalls.incrementAndGet();
+        maxConcurrentCalls.accumulateAndGet(calls, Math::max);
+        LOGGER.info("{}", Thread.currentThread().getName());
+        try {
+            Thread.sleep(50);
+        } finally {
+            concurrentCalls.decrementAndGet();
+        }
+        return "Darth Sidious";
+    }
+
+}
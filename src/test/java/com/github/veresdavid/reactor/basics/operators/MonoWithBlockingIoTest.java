@@ -1,5 +1,6 @@
 package com.github.veresdavid.reactor.basics.operators;
 
+import com.github.veresdavid.reactor.basics.util.AwaitUtil;
 import com.github.veresdavid.reactor.basics.util.TestUtil;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -8,6 +9,8 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
 /**
  * 08. Mono with blocking IO operation
  *
@@ -19,7 +22,7 @@ public class MonoWithBlockingIoTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(MonoWithBlockingIoTest.class);
 
     @Test
-    public void monoWithBlockingIoTest() throws InterruptedException {
+    public void monoWithBlockingIoTest() {
         // given
         // We can also create a Mono from a return value of a Callable, by passing it to the fromCallable.
         // In this case, we will simulate that we are calling an external service that takes some time to respond.
@@ -30,9 +33,7 @@ public class MonoWithBlockingIoTest {
             .subscribeOn(Schedulers.boundedElastic());
 
         // manual try
-        mono.subscribe(s -> LOGGER.info("Value = {}", s));
-
-        Thread.sleep(1500);
+        AwaitUtil.awaitTermination("emperor service", mono, s -> LOGGER.info("Value = {}", s), Duration.ofMillis(1500));
 
         TestUtil.logSeparatorLine();
 
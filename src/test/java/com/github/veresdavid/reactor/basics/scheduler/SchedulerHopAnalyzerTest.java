@@ -0,0 +1,115 @@
+package com.github.veresdavid.reactor.basics.scheduler;
+
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+/**
+ * 19. Scheduler hops
+ *
+ * Every publishOn hands the items over to another thread, which has its price. With {@link SchedulerHopAnalyzer} we
+ * can find the hops which don't worth it, and the operators which prevent fusion.
+ */
+@IsolatedSchedulers
+public class SchedulerHopAnalyzerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerHopAnalyzerTest.class);
+
+    @Test
+    public void fluxWithRedundantHopsTest() {
+        // given
+        // The first publishOn is useless, as there is no work between the two hops. The third publishOn moves the
+        // items to the single thread they are already on. The last publishOn moves them to another worker of
+        // boundedElastic, which is not reported.
+        Flux<String> flux = Flux.just("Jabba", "Bib Fortuna")
+            .publishOn(Schedulers.boundedElastic())
+            .publishOn(Schedulers.single())
+            .map(String::toUpperCase)
+            .publishOn(Schedulers.single())
+            .map(String::toLowerCase)
+            .publishOn(Schedulers.boundedElastic())
+            .map(String::trim)
+            .publishOn(Schedulers.boundedElastic())
+            .map(String::strip);
+
+        // manual try
+        List<SchedulerHopAnalyzer.Finding> findings = SchedulerHopAnalyzer.analyze(flux);
+        findings.forEach(finding -> LOGGER.info("{}", finding));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        Assertions.assertEquals(2, findings.size());
+        Assertions.assertEquals(1, findings.get(0).getPosition());
+        Assertions.assertEquals(SchedulerHopAnalyzer.Finding.Type.REDUNDANT_PUBLISH_ON, findings.get(0).getType());
+        Assertions.assertEquals(4, findings.get(1).getPosition());
+        Assertions.assertEquals(SchedulerHopAnalyzer.Finding.Type.REDUNDANT_PUBLISH_ON, findings.get(1).getType());
+    }
+
+    @Test
+    public void fluxWithFusionBarrierTest() {
+        // given
+        // The hide operator (just like many custom operators) does not support fusion, so the map and filter below
+        // can't be fused with the source.
+        // The second subscribeOn has no effect, the source runs on the parallel Scheduler.
+        Flux<String> flux = Flux.just("Admiral Ackbar", "Mon Mothma")
+            .hide()
+            .map(String::toUpperCase)
+            .filter(s -> s.startsWith("M"))
+            .subscribeOn(Schedulers.parallel())
+            .subscribeOn(Schedulers.boundedElastic());
+
+        // manual try
+        List<SchedulerHopAnalyzer.Finding> findings = SchedulerHopAnalyzer.analyze(flux);
+        findings.forEach(finding -> LOGGER.info("{}", finding));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        Assertions.assertEquals(2, findings.size());
+        Assertions.assertEquals(SchedulerHopAnalyzer.Finding.Type.FUSION_BARRIER, findings.get(0).getType());
+        Assertions.assertEquals("hide", findings.get(0).getStepName());
+        Assertions.assertEquals(SchedulerHopAnalyzer.Finding.Type.REDUNDANT_SUBSCRIBE_ON, findings.get(1).getType());
+    }
+
+    @Test
+    public void fluxWithRewrittenHopsTest() {
+        // given
+        // With rewriting enabled, the redundant publishOn is removed while assembling the chain.
+        Flux<String> flux;
+        SchedulerHopAnalyzer.enableRewriting();
+        try {
+            flux = Flux.just("Jabba", "Bib Fortuna")
+                .publishOn(Schedulers.single())
+                .publishOn(Schedulers.boundedElastic())
+                .map(s -> s + " on " + Thread.currentThread().getName());
+        } finally {
+            SchedulerHopAnalyzer.disableRewriting();
+        }
+
+        // manual try
+        flux.subscribe(s -> LOGGER.info("{}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        Assertions.assertTrue(SchedulerHopAnalyzer.analyze(flux).isEmpty());
+        Assertions.assertEquals(1, Scannable.from(flux).parents()
+            .filter(step -> "publishOn".equals(step.stepName()))
+            .count());
+        StepVerifier.create(flux)
+            .expectNextMatches(s -> s.startsWith("Jabba on boundedElastic"))
+            .expectNextMatches(s -> s.startsWith("Bib Fortuna on boundedElastic"))
+            .verifyComplete();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.github.veresdavid.reactor.basics.simulation;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Synthetic arrivals of requests: a Poisson process, where the rate of the arrivals can change over time.
+ *
+ * The arrivals are generated by thinning: candidates come with the maximum rate, and each of them is kept with the
+ * probability of the current rate divided by the maximum rate, so the same seed always gives the same arrivals.
+ */
+public final class ArrivalProcess {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final long DAY_NANOS = Duration.ofDays(1).toNanos();
+
+    private final String description;
+    private final LongToDoubleFunction ratePerSecond;
+    private final double maxRatePerSecond;
+
+    private ArrivalProcess(String description, LongToDoubleFunction ratePerSecond, double maxRatePerSecond) {
+        this.description = description;
+        this.ratePerSecond = ratePerSecond;
+        this.maxRatePerSecond = maxRatePerSecond;
+    }
+
+    /**
+     * Arrivals with a constant rate.
+     */
+    public static ArrivalProcess poisson(double ratePerSecond) {
+        requirePositive(ratePerSecond, "ratePerSecond");
+        return new ArrivalProcess("poisson(" + ratePerSecond + "/s)", nanos -> ratePerSecond, ratePerSecond);
+    }
+
+    /**
+     * Arrivals with {@code baseRatePerSecond}, except for the first {@code burstLength} of every {@code period}, when
+     * they come with {@code burstRatePerSecond}.
+     */
+    public static ArrivalProcess bursty(double baseRatePerSecond, double burstRatePerSecond, Duration burstLength,
+                                        Duration period) {
+        if (!(baseRatePerSecond >= 0)) {
+            throw new IllegalArgumentException("baseRatePerSecond >= 0 required but it was " + baseRatePerSecond);
+        }
+        requirePositive(burstRatePerSecond, "burstRatePerSecond");
+        long burstNanos = Objects.requireNonNull(burstLength, "burstLength").toNanos();
+        long periodNanos = Objects.requireNonNull(period, "period").toNanos();
+        if (burstNanos <= 0 || burstNanos > periodNanos) {
+            throw new IllegalArgumentException("0 < burstLength <= period required but it was " + burstLength);
+        }
+        return new ArrivalProcess(
+            "bursty(" + baseRatePerSecond + "/s, " + burstRatePerSecond + "/s for " + burstLength + " every " + period
+                + ")",
+            nanos -> nanos % periodNanos < burstNanos ? burstRatePerSecond : baseRatePerSecond,
+            Math.max(baseRatePerSecond, burstRatePerSecond)
+        );
+    }
+
+    /**
+     * Arrivals following a daily cycle: the rate is {@code minRatePerSecond} at midnight, and it smoothly rises to
+     * {@code peakRatePerSecond} at noon.
+     */
+    public static ArrivalProcess diurnal(double minRatePerSecond, double peakRatePerSecond) {
+        if (!(minRatePerSecond >= 0 && minRatePerSecond <= peakRatePerSecond)) {
+            throw new IllegalArgumentException(
+                "0 <= minRatePerSecond <= peakRatePerSecond required but it was " + minRatePerSecond);
+        }
+        requirePositive(peakRatePerSecond, "peakRatePerSecond");
+        return new ArrivalProcess(
+            "diurnal(" + minRatePerSecond + "/s - " + peakRatePerSecond + "/s)",
+            nanos -> minRatePerSecond + (peakRatePerSecond - minRatePerSecond)
+                * (1 - Math.cos(2 * Math.PI * (nanos % DAY_NANOS) / DAY_NANOS)) / 2,
+            peakRatePerSecond
+        );
+    }
+
+    /**
+     * The rate of the arrivals at the given time, measured from the start of the simulation.
+     */
+    public double rateAt(long nanos) {
+        return ratePerSecond.applyAsDouble(nanos);
+    }
+
+    /**
+     * The time of the next arrival after {@code nanos}.
+     */
+    long nextArrival(long nanos, Random random) {
+        long time = nanos;
+        do {
+            double gapSeconds = -Math.log(1 - random.nextDouble()) / maxRatePerSecond;
+            time += Math.max(1, Math.round(gapSeconds * NANOS_PER_SECOND));
+        } while (random.nextDouble() * maxRatePerSecond > rateAt(time));
+        return time;
+    }
+
+    private static void requirePositive(double rate, String name) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException(name + " > 0 required but it was " + rate);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+}
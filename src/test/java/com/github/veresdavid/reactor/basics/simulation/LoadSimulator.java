@@ -0,0 +1,266 @@
+package com.github.veresdavid.reactor.basics.simulation;
+
+import org.HdrHistogram.Histogram;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Drives a pipeline with synthetic load on a virtual clock, like {@code StepVerifier.withVirtualTime(...)} does, so
+ * days of traffic can be simulated in seconds.
+ *
+ * The requests arrive according to an {@link ArrivalProcess}, regardless of how fast the pipeline consumes them, and
+ * wait in an unbounded queue in front of the pipeline if it does not keep up. Every request comes with its own
+ * sampled {@link ServiceTime}, which {@link #servers(int)} spends as a delay, but any time based operator can be used
+ * to model the service, like {@code delayElements(...)}.
+ *
+ * The pipeline has to use the default Schedulers (or the ones created with {@code Schedulers.newXxx(...)} inside the
+ * pipeline function), which are replaced with a {@link VirtualTimeScheduler} during the simulation. A simulation
+ * changes this global state, so two of them must not run at the same time.
+ *
+ * Usage: {@code LoadSimulator.builder().arrivals(ArrivalProcess.poisson(80)).duration(Duration.ofHours(1)).build()
+ * .run(LoadSimulator.servers(4))}
+ */
+public final class LoadSimulator {
+
+    private final ArrivalProcess arrivals;
+    private final ServiceTime serviceTime;
+    private final long durationNanos;
+    private final long drainTimeoutNanos;
+    private final long seed;
+
+    private LoadSimulator(Builder builder) {
+        this.arrivals = builder.arrivals;
+        this.serviceTime = builder.serviceTime;
+        this.durationNanos = builder.duration.toNanos();
+        this.drainTimeoutNanos = builder.drainTimeout == null ? durationNanos : builder.drainTimeout.toNanos();
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A service with {@code concurrency} parallel servers, each of them delaying the request with its service time.
+     * The order of the requests is not kept.
+     */
+    public static Function<Flux<Request>, Flux<Request>> servers(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency > 0 required but it was " + concurrency);
+        }
+        return flux -> flux.flatMap(request -> Mono.just(request).delayElement(request.getServiceTime()),
+            concurrency, 1);
+    }
+
+    /**
+     * Runs the simulation: the requests arrive during the simulated duration, then the pipeline has at most the drain
+     * timeout to finish the ones still waiting. Every request emitted by the pipeline counts as served.
+     */
+    public SimulationReport run(Function<? super Flux<Request>, ? extends Publisher<Request>> pipeline) {
+        Objects.requireNonNull(pipeline, "pipeline");
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        VirtualTimeScheduler.set(scheduler);
+        Disposable subscription = null;
+        try {
+            Run run = new Run(scheduler);
+            subscription = Flux.from(pipeline.apply(run.sink.asFlux()))
+                .subscribe(run::onDeparture, run::onError, run::onComplete);
+            run.scheduleArrival(0);
+            scheduler.advanceTimeBy(Duration.ofNanos(durationNanos));
+            scheduler.advanceTimeBy(Duration.ofNanos(drainTimeoutNanos));
+            return run.report();
+        } finally {
+            if (subscription != null) {
+                subscription.dispose();
+            }
+            VirtualTimeScheduler.reset();
+        }
+    }
+
+    public static final class Builder {
+        private ArrivalProcess arrivals;
+        private ServiceTime serviceTime = ServiceTime.fixed(Duration.ZERO);
+        private Duration duration;
+        private Duration drainTimeout;
+        private long seed;
+
+        private Builder() {
+        }
+
+        public Builder arrivals(ArrivalProcess arrivals) {
+            this.arrivals = Objects.requireNonNull(arrivals, "arrivals");
+            return this;
+        }
+
+        /**
+         * The service time sampled for the requests, zero by default.
+         */
+        public Builder serviceTime(ServiceTime serviceTime) {
+            this.serviceTime = Objects.requireNonNull(serviceTime, "serviceTime");
+            return this;
+        }
+
+        /**
+         * How long the requests keep arriving, in virtual time.
+         */
+        public Builder duration(Duration duration) {
+            Objects.requireNonNull(duration, "duration");
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("duration > 0 required but it was " + duration);
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * How long the pipeline can work on the waiting requests after the last arrival, the same as the duration by
+         * default.
+         */
+        public Builder drainTimeout(Duration drainTimeout) {
+            Objects.requireNonNull(drainTimeout, "drainTimeout");
+            if (drainTimeout.isNegative()) {
+                throw new IllegalArgumentException("drainTimeout >= 0 required but it was " + drainTimeout);
+            }
+            this.drainTimeout = drainTimeout;
+            return this;
+        }
+
+        /**
+         * Seed of the random arrivals and service times, so a simulation can be repeated.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public LoadSimulator build() {
+            if (arrivals == null) {
+                throw new IllegalStateException("arrivals are required");
+            }
+            if (duration == null) {
+                throw new IllegalStateException("duration is required");
+            }
+            return new LoadSimulator(this);
+        }
+    }
+
+    /**
+     * A simulated request, with the time it arrived at (measured from the start of the simulation) and the time it
+     * takes to serve it.
+     */
+    public static final class Request {
+        private final long id;
+        private final long arrivalNanos;
+        private final Duration serviceTime;
+
+        Request(long id, long arrivalNanos, Duration serviceTime) {
+            this.id = id;
+            this.arrivalNanos = arrivalNanos;
+            this.serviceTime = serviceTime;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getArrivalNanos() {
+            return arrivalNanos;
+        }
+
+        public Duration getServiceTime() {
+            return serviceTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Request{id=" + id + ", arrivalNanos=" + arrivalNanos + ", serviceTime=" + serviceTime + '}';
+        }
+    }
+
+    // The state of one simulation. Everything runs on the thread advancing the virtual time.
+    private final class Run {
+        private final VirtualTimeScheduler scheduler;
+        private final long startNanos;
+        private final Random random = new Random(seed);
+        private final Sinks.Many<Request> sink = Sinks.many().unicast().onBackpressureBuffer();
+        private final Histogram latency = new Histogram(SimulationReport.SIGNIFICANT_DIGITS);
+        private final Histogram queueDepth = new Histogram(SimulationReport.SIGNIFICANT_DIGITS);
+        private long arrived;
+        private long departed;
+        private long lastChangeNanos;
+        private long lastDepartureNanos;
+        private Throwable error;
+        private boolean completed;
+
+        Run(VirtualTimeScheduler scheduler) {
+            this.scheduler = scheduler;
+            this.startNanos = scheduler.now(TimeUnit.NANOSECONDS);
+        }
+
+        void scheduleArrival(long afterNanos) {
+            long nextNanos = arrivals.nextArrival(afterNanos, random);
+            if (nextNanos >= durationNanos) {
+                sink.tryEmitComplete();
+                return;
+            }
+            scheduler.schedule(() -> onArrival(nextNanos), nextNanos - afterNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void onArrival(long nanos) {
+            recordQueueDepth(nanos);
+            arrived++;
+            sink.tryEmitNext(new Request(arrived, nanos, Duration.ofNanos(serviceTime.sample(random))));
+            scheduleArrival(nanos);
+        }
+
+        void onDeparture(Request request) {
+            long nanos = now();
+            recordQueueDepth(nanos);
+            departed++;
+            lastDepartureNanos = nanos;
+            latency.recordValue(nanos - request.getArrivalNanos());
+        }
+
+        void onError(Throwable error) {
+            this.error = error;
+        }
+
+        void onComplete() {
+            completed = true;
+        }
+
+        // Weighted with the time spent at the depth, so the percentiles are the ratio of the time.
+        private void recordQueueDepth(long nanos) {
+            if (nanos > lastChangeNanos) {
+                queueDepth.recordValueWithCount(arrived - departed, nanos - lastChangeNanos);
+                lastChangeNanos = nanos;
+            }
+        }
+
+        private long now() {
+            return scheduler.now(TimeUnit.NANOSECONDS) - startNanos;
+        }
+
+        SimulationReport report() {
+            if (error != null) {
+                throw Exceptions.propagate(error);
+            }
+            long endNanos = Math.max(durationNanos, completed ? lastDepartureNanos : now());
+            recordQueueDepth(endNanos);
+            return new SimulationReport(Duration.ofNanos(endNanos), arrived, departed, completed,
+                arrived * 1_000_000_000d / durationNanos, departed * 1_000_000_000d / endNanos, latency, queueDepth);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.veresdavid.reactor.basics.simulation;
+
+import com.github.veresdavid.reactor.basics.flux.FluxDelayTest;
+import com.github.veresdavid.reactor.basics.util.IsolatedSchedulers;
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * 30. Load simulation in virtual time
+ *
+ * In {@link FluxDelayTest}, the VirtualTimeScheduler lets us skip days of delays in milliseconds. With
+ * {@link LoadSimulator}, we can use the same trick to see how a pipeline behaves under load: requests arrive on a
+ * virtual clock, and we get the throughput, the queue depth and the latency, without waiting for any of it.
+ */
+@IsolatedSchedulers
+public class LoadSimulatorTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadSimulatorTest.class);
+
+    @Test
+    public void simulateServersTest() {
+        // given
+        // 80 requests per second for 20 minutes, each served in 10 milliseconds on average by a single server, so the
+        // server is busy 80% of the time.
+        LoadSimulator simulator = LoadSimulator.builder()
+            .arrivals(ArrivalProcess.poisson(80))
+            .serviceTime(ServiceTime.exponential(Duration.ofMillis(10)))
+            .duration(Duration.ofMinutes(20))
+            .seed(66)
+            .build();
+
+        // manual try
+        // Adding a second server makes the latency drop a lot more than we would expect.
+        LOGGER.info("1 server: {}", simulator.run(LoadSimulator.servers(1)));
+        LOGGER.info("2 servers: {}", simulator.run(LoadSimulator.servers(2)));
+
+        TestUtil.logSeparatorLine();
+
+        // when
+        SimulationReport report = simulator.run(LoadSimulator.servers(1));
+
+        // then
+        // The queueing theory says that the mean latency is 1 / (100/s - 80/s) = 50 milliseconds, and 4 requests are
+        // in the system on average.
+        Assertions.assertTrue(report.isCompleted());
+        Assertions.assertEquals(report.getArrivals(), report.getDepartures());
+        Assertions.assertEquals(80, report.getThroughputPerSecond(), 2);
+        Assertions.assertEquals(50, report.getLatency().getMean() / 1_000_000, 10);
+        Assertions.assertEquals(4, report.getQueueDepth().getMean(), 1);
+    }
+
+    @Test
+    public void simulateBurstsWithDelayElementsTest() {
+        // given
+        // Every minute starts with a 10 second burst, 3 times faster than what delayElements can keep up with.
+        LoadSimulator simulator = LoadSimulator.builder()
+            .arrivals(ArrivalProcess.bursty(20, 300, Duration.ofSeconds(10), Duration.ofMinutes(1)))
+            .duration(Duration.ofMinutes(10))
+            .seed(501)
+            .build();
+
+        // manual try
+        // Across the whole day, the traffic peaking at noon is no problem for the same pipeline.
+        LOGGER.info("Diurnal: {}", LoadSimulator.builder()
+            .arrivals(ArrivalProcess.diurnal(1, 5))
+            .duration(Duration.ofDays(1))
+            .build()
+            .run(flux -> flux.delayElements(Duration.ofMillis(10))));
+
+        TestUtil.logSeparatorLine();
+
+        // when
+        SimulationReport report = simulator.run(flux -> flux.delayElements(Duration.ofMillis(10)));
+        LOGGER.info("Bursty: {}", report);
+
+        // then
+        // On average, there is enough capacity, but the requests of a burst pile up, and the last of them wait for
+        // more than 20 seconds.
+        Assertions.assertTrue(report.isCompleted());
+        Assertions.assertTrue(report.getOfferedPerSecond() < 100);
+        Assertions.assertTrue(report.getQueueDepth().getMaxValue() > 1500);
+        Assertions.assertTrue(report.getLatency().getMaxValue() > Duration.ofSeconds(20).toNanos());
+    }
+
+}
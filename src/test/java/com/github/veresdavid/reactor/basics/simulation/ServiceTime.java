@@ -0,0 +1,58 @@
+package com.github.veresdavid.reactor.basics.simulation;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * The time it takes to serve one request, sampled for each request when it arrives.
+ */
+public final class ServiceTime {
+
+    private final String description;
+    private final long meanNanos;
+    private final boolean exponential;
+
+    private ServiceTime(String description, long meanNanos, boolean exponential) {
+        this.description = description;
+        this.meanNanos = meanNanos;
+        this.exponential = exponential;
+    }
+
+    /**
+     * Every request takes the same time, like with {@code delayElements(...)}.
+     */
+    public static ServiceTime fixed(Duration duration) {
+        long nanos = requireNotNegative(duration, "duration");
+        return new ServiceTime("fixed(" + duration + ")", nanos, false);
+    }
+
+    /**
+     * Most of the requests are quick, but a few of them take much longer than the mean.
+     */
+    public static ServiceTime exponential(Duration mean) {
+        long nanos = requireNotNegative(mean, "mean");
+        return new ServiceTime("exponential(" + mean + ")", nanos, true);
+    }
+
+    long sample(Random random) {
+        if (!exponential) {
+            return meanNanos;
+        }
+        return Math.round(-Math.log(1 - random.nextDouble()) * meanNanos);
+    }
+
+    private static long requireNotNegative(Duration duration, String name) {
+        Objects.requireNonNull(duration, name);
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(name + " >= 0 required but it was " + duration);
+        }
+        return duration.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+}
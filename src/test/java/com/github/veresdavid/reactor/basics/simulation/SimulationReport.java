@@ -0,0 +1,112 @@
+package com.github.veresdavid.reactor.basics.simulation;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * The results of one {@link LoadSimulator} run, everything measured in virtual time.
+ */
+public final class SimulationReport {
+
+    static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Duration simulatedTime;
+    private final long arrivals;
+    private final long departures;
+    private final boolean completed;
+    private final double offeredPerSecond;
+    private final double throughputPerSecond;
+    private final Histogram latency;
+    private final Histogram queueDepth;
+
+    SimulationReport(Duration simulatedTime, long arrivals, long departures, boolean completed,
+                     double offeredPerSecond, double throughputPerSecond, Histogram latency, Histogram queueDepth) {
+        this.simulatedTime = simulatedTime;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.completed = completed;
+        this.offeredPerSecond = offeredPerSecond;
+        this.throughputPerSecond = throughputPerSecond;
+        this.latency = latency;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * From the start until the pipeline completed, or until the drain timeout if it did not.
+     */
+    public Duration getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    public long getArrivals() {
+        return arrivals;
+    }
+
+    public long getDepartures() {
+        return departures;
+    }
+
+    /**
+     * Whether the pipeline completed before the drain timeout. If it did not, some requests may be unfinished.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public long getUnfinished() {
+        return arrivals - departures;
+    }
+
+    /**
+     * Average arrival rate while the requests were arriving.
+     */
+    public double getOfferedPerSecond() {
+        return offeredPerSecond;
+    }
+
+    /**
+     * Average departure rate over the simulated time.
+     */
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    /**
+     * Nanoseconds from the arrival of each served request until the pipeline emitted it.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Number of requests arrived but not served yet, weighted with the nanoseconds spent at each depth, so for example
+     * the 99th percentile is the depth which was not exceeded for 99% of the time.
+     */
+    public Histogram getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationReport{" +
+            "simulatedTime=" + simulatedTime +
+            ", arrivals=" + arrivals +
+            ", departures=" + departures +
+            ", completed=" + completed +
+            ", offeredPerSecond=" + String.format("%.1f", offeredPerSecond) +
+            ", throughputPerSecond=" + String.format("%.1f", throughputPerSecond) +
+            ", latencyP50=" + millis(latency.getValueAtPercentile(50)) +
+            ", latencyP99=" + millis(latency.getValueAtPercentile(99)) +
+            ", latencyMax=" + millis(latency.getMaxValue()) +
+            ", queueDepthMean=" + String.format("%.1f", queueDepth.getMean()) +
+            ", queueDepthP99=" + queueDepth.getValueAtPercentile(99) +
+            ", queueDepthMax=" + queueDepth.getMaxValue() +
+            '}';
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000d);
+    }
+
+}
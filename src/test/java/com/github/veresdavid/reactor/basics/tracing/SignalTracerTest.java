@@ -0,0 +1,114 @@
+package com.github.veresdavid.reactor.basics.tracing;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 20. Tracing signals
+ *
+ * The log operator formats and logs every signal, which is way too expensive for a hot pipeline. With
+ * {@link SignalTracer}, the signals are recorded into a ring buffer, and only formatted when we dump them.
+ */
+public class SignalTracerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignalTracerTest.class);
+
+    @Test
+    public void fluxWithTracingTest() {
+        // given
+        Flux<String> flux = Flux.just("R2-D2", "C3-PO")
+            .transform(SignalTracer.trace("droids"));
+
+        // manual try
+        flux.subscribe(s -> LOGGER.info("Value = {}", s));
+        tracedSignals("droids").forEach(signal -> LOGGER.info("{}", signal));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(flux.transform(SignalTracer.trace("verifiedDroids")))
+            .expectNext("R2-D2", "C3-PO")
+            .verifyComplete();
+        List<String> signals = tracedSignals("verifiedDroids").stream()
+            .map(TracedSignal::getSignal)
+            .collect(Collectors.toList());
+        Assertions.assertEquals(List.of("onSubscribe", "request", "onNext", "onNext", "onComplete"), signals);
+        // The dump consumes the signals, so they are not dumped again.
+        Assertions.assertTrue(tracedSignals("verifiedDroids").isEmpty());
+    }
+
+    @Test
+    public void fluxWithSampledTracingTest() {
+        // given
+        // With a sample rate of 0, none of the subscriptions are traced.
+        Flux<Integer> flux = Flux.range(1, 5)
+            .transform(SignalTracer.trace("sampledClones", 0));
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(5)
+            .verifyComplete();
+        Assertions.assertTrue(tracedSignals("sampledClones").isEmpty());
+    }
+
+    @Test
+    public void ringBufferLappedByWriterTest() throws InterruptedException {
+        // given
+        // Each signal has its index as its timestamp and its subscription id, so a torn signal would show.
+        SignalRingBuffer buffer = new SignalRingBuffer(Thread.currentThread(), 4);
+        for (long index = 0; index < 10; index++) {
+            buffer.record(index, "clones", index, TracedSignal.ON_NEXT, 0, null);
+        }
+
+        // when - then
+        // The slot of the oldest signal is the one the writer overwrites next, so it is not dumped.
+        List<TracedSignal> signals = new ArrayList<>();
+        buffer.drainTo(signals);
+        Assertions.assertEquals(List.of(7L, 8L, 9L), signals.stream()
+            .map(TracedSignal::getTimestamp)
+            .collect(Collectors.toList()));
+
+        // A clone trooper records signals as fast as it can, so it laps the reader all the time.
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long index = 10; running.get(); index++) {
+                buffer.record(index, "clones", index, TracedSignal.ON_NEXT, 0, null);
+            }
+        }, "clone-trooper");
+        writer.start();
+        try {
+            long previous = 9;
+            for (int drain = 0; drain < 100_000; drain++) {
+                signals.clear();
+                buffer.drainTo(signals);
+                Assertions.assertTrue(signals.size() < 4);
+                for (TracedSignal signal : signals) {
+                    Assertions.assertEquals(signal.getTimestamp(), signal.getSubscriptionId());
+                    Assertions.assertTrue(signal.getTimestamp() > previous);
+                    previous = signal.getTimestamp();
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    // Helper method to dump the signals of one tracer only.
+    private List<TracedSignal> tracedSignals(String name) {
+        return SignalTracer.dump().stream()
+            .filter(signal -> name.equals(signal.getName()))
+            .collect(Collectors.toList());
+    }
+
+}
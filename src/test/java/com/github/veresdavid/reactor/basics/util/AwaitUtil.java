@@ -0,0 +1,109 @@
+package com.github.veresdavid.reactor.basics.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * This class provides helper methods to wait for asynchronous work in tests, instead of sleeping for a fixed amount of
+ * time.
+ * Each method waits only until the awaited signal arrives, logs how long the step took, and fails the test if it took
+ * longer than its latency budget. Steps which never finish are given up after {@link #TIMEOUT}.
+ */
+public class AwaitUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwaitUtil.class);
+
+    public static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Helper method to subscribe to a publisher, like in the manual tries, and wait until it terminates.
+     * Errors are logged, the same way as the manual tries with an error consumer do.
+     */
+    public static <T> Duration awaitTermination(String step, Publisher<T> publisher, Consumer<? super T> consumer,
+                                                Duration budget) {
+        return awaitTermination(step, publisher, consumer,
+            throwable -> LOGGER.error("Error: {}", throwable.getMessage()), budget);
+    }
+
+    public static <T> Duration awaitTermination(String step, Publisher<T> publisher, Consumer<? super T> consumer,
+                                                Consumer<? super Throwable> errorConsumer, Duration budget) {
+        CountDownLatch terminated = new CountDownLatch(1);
+        long start = System.nanoTime();
+        Disposable disposable = Flux.from(publisher)
+            .doFinally(signalType -> terminated.countDown())
+            .subscribe(consumer, errorConsumer);
+        return await(step, terminated, start, disposable, budget);
+    }
+
+    /**
+     * Helper method to wait until the publisher emits {@code count} items, then cancel the subscription.
+     * For a hot publisher, it lets us wait until some of the items were emitted for sure.
+     */
+    public static <T> Duration awaitNext(String step, Publisher<T> publisher, long count, Duration budget) {
+        CountDownLatch received = new CountDownLatch(1);
+        AtomicLong remaining = new AtomicLong(count);
+        long start = System.nanoTime();
+        Disposable disposable = Flux.from(publisher)
+            .take(count)
+            .subscribe(item -> remaining.decrementAndGet(), throwable -> received.countDown(), received::countDown);
+        Duration elapsed = await(step, received, start, disposable, budget);
+        Assertions.assertEquals(0, remaining.get(), "Step '" + step + "' terminated before receiving " + count
+            + " items");
+        return elapsed;
+    }
+
+    /**
+     * Helper method to wait until the condition becomes true.
+     */
+    public static Duration awaitCondition(String step, BooleanSupplier condition, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) {
+                Assertions.fail("Step '" + step + "' did not finish in " + TIMEOUT.toMillis() + " ms");
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+        return checkBudget(step, System.nanoTime() - start, budget);
+    }
+
+    private static Duration await(String step, CountDownLatch latch, long start, Disposable disposable,
+                                  Duration budget) {
+        try {
+            if (!latch.await(TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+                disposable.dispose();
+                Assertions.fail("Step '" + step + "' did not finish in " + TIMEOUT.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            disposable.dispose();
+            Thread.currentThread().interrupt();
+            Assertions.fail("Interrupted while waiting for step '" + step + "'", e);
+        }
+        return checkBudget(step, System.nanoTime() - start, budget);
+    }
+
+    private static Duration checkBudget(String step, long elapsedNanos, Duration budget) {
+        Duration elapsed = Duration.ofNanos(elapsedNanos);
+        LOGGER.info("Step '{}' took {} ms (budget: {} ms)", step, elapsed.toMillis(), budget.toMillis());
+        if (elapsed.compareTo(budget) > 0) {
+            Assertions.fail("Step '" + step + "' took " + elapsed.toMillis() + " ms, which is over its budget of "
+                + budget.toMillis() + " ms");
+        }
+        return elapsed;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.github.veresdavid.reactor.basics.util;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the test classes which change the global state of Reactor, for example by using
+ * {@code StepVerifier.withVirtualTime(...)}, which replaces the Schedulers, or by registering Hooks.
+ * The test classes run in parallel in separate JVMs, each JVM running one class at a time, so only the tests of the
+ * same class share this state. Each test of these classes gets its own Schedulers, see
+ * {@link SchedulerIsolationExtension}, and with {@link Isolated}, they also run alone if JUnit's parallel execution
+ * is turned on.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Isolated
+@ExtendWith(SchedulerIsolationExtension.class)
+public @interface IsolatedSchedulers {
+}
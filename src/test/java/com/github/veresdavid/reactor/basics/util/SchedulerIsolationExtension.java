@@ -0,0 +1,83 @@
+package com.github.veresdavid.reactor.basics.util;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JUnit extension which gives each test its own Schedulers: before the test, it installs a factory scoped to the
+ * test, so even {@code Schedulers.parallel()} and the others are created from scratch. After the test, every Scheduler
+ * created by that factory is disposed, and the previous factory and Schedulers are restored.
+ * Use it through {@link IsolatedSchedulers}, which also makes sure that no other test runs at the same time, as the
+ * factory is global.
+ */
+public class SchedulerIsolationExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(SchedulerIsolationExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        ScopedFactory factory = new ScopedFactory();
+        Schedulers.Snapshot snapshot = Schedulers.setFactoryWithSnapshot(factory);
+        context.getStore(NAMESPACE).put(ScopedFactory.class, factory);
+        context.getStore(NAMESPACE).put(Schedulers.Snapshot.class, snapshot);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        ScopedFactory factory = context.getStore(NAMESPACE).remove(ScopedFactory.class, ScopedFactory.class);
+        Schedulers.Snapshot snapshot = context.getStore(NAMESPACE)
+            .remove(Schedulers.Snapshot.class, Schedulers.Snapshot.class);
+        // Restoring the snapshot disposes the cached Schedulers of the test, the rest of them are disposed here.
+        Schedulers.resetFrom(snapshot);
+        factory.dispose();
+    }
+
+    // Creates the same Schedulers as the default factory, but remembers them.
+    private static final class ScopedFactory implements Schedulers.Factory {
+        private final Queue<Scheduler> created = new ConcurrentLinkedQueue<>();
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Scheduler newElastic(int ttlSeconds, ThreadFactory threadFactory) {
+            return track(Schedulers.Factory.super.newElastic(ttlSeconds, threadFactory));
+        }
+
+        @Override
+        public Scheduler newBoundedElastic(int threadCap, int queuedTaskCap, ThreadFactory threadFactory,
+                                           int ttlSeconds) {
+            return track(Schedulers.Factory.super.newBoundedElastic(threadCap, queuedTaskCap, threadFactory,
+                ttlSeconds));
+        }
+
+        @Override
+        public Scheduler newParallel(int parallelism, ThreadFactory threadFactory) {
+            return track(Schedulers.Factory.super.newParallel(parallelism, threadFactory));
+        }
+
+        @Override
+        public Scheduler newSingle(ThreadFactory threadFactory) {
+            return track(Schedulers.Factory.super.newSingle(threadFactory));
+        }
+
+        private Scheduler track(Scheduler scheduler) {
+            created.add(scheduler);
+            return scheduler;
+        }
+
+        void dispose() {
+            Scheduler scheduler;
+            while ((scheduler = created.poll()) != null) {
+                scheduler.dispose();
+            }
+        }
+    }
+
+}
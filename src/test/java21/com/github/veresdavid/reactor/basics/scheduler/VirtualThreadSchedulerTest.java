@@ -0,0 +1,74 @@
+package com.github.veresdavid.reactor.basics.scheduler;
+
+import com.github.veresdavid.reactor.basics.util.TestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+/**
+ * 18. Virtual thread Scheduler
+ *
+ * With Java 21, we can run our blocking calls on virtual threads instead of the boundedElastic {@link Scheduler}.
+ * These tests are only compiled and run on JDK 21+ (see the java21 Maven profile).
+ */
+public class VirtualThreadSchedulerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadSchedulerTest.class);
+
+    private final Scheduler scheduler = VirtualThreadSchedulers.newVirtualThreadScheduler("virtual");
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void monoWithVirtualThreadTest() {
+        // given
+        // Just like with boundedElastic, we use subscribeOn to move the blocking call off the main thread.
+        Mono<String> mono = Mono.fromCallable(this::callEmperorService)
+            .log()
+            .subscribeOn(scheduler);
+
+        // manual try
+        mono.subscribe(s -> LOGGER.info("Value = {}", s));
+
+        TestUtil.logSeparatorLine();
+
+        // when - then
+        StepVerifier.create(mono)
+            .expectNext("Darth Sidious")
+            .verifyComplete();
+    }
+
+    @Test
+    public void fluxWithManyBlockingCallsTest() {
+        // given
+        // A thousand blocking calls of 1 second run at the same time, which would take more than a minute with the
+        // boundedElastic Scheduler on a small machine.
+        Flux<String> flux = Flux.range(1, 1000)
+            .flatMap(i -> Mono.fromCallable(this::callEmperorService).subscribeOn(scheduler), 1000);
+
+        // when - then
+        StepVerifier.create(flux)
+            .expectNextCount(1000)
+            .expectComplete()
+            .verify(Duration.ofSeconds(30));
+    }
+
+    // Helper method for simulating an external service call.
+    private String callEmperorService() throws InterruptedException {
+        Assertions.assertTrue(Thread.currentThread().isVirtual());
+        Thread.sleep(1000);
+        return "Darth Sidious";
+    }
+
+}